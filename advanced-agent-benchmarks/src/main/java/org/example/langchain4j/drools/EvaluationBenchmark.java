@@ -0,0 +1,83 @@
+package org.example.langchain4j.drools;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionsPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One loan application evaluated in a new KieSession per call, in a pooled KieSession and in a StatelessKieSession.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EvaluationBenchmark {
+
+    private KieBase kieBase;
+    private KieSessionsPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        kieBase = DroolsUtils.createKieBase(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME);
+        pool = kieBase.newKieSessionsPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public boolean perCall() {
+        LoanApplication loanApplication = newLoanApplication();
+        KieSession kieSession = kieBase.newKieSession();
+        try {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        } finally {
+            kieSession.dispose();
+        }
+        return loanApplication.isApproved();
+    }
+
+    @Benchmark
+    public boolean pooled() {
+        LoanApplication loanApplication = newLoanApplication();
+        // returned to the pool and reset on close()
+        try (KieSession kieSession = pool.newKieSession()) {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        }
+        return loanApplication.isApproved();
+    }
+
+    @Benchmark
+    public boolean stateless() {
+        LoanApplication loanApplication = newLoanApplication();
+        kieBase.newStatelessKieSession().execute(List.of(loanApplication));
+        return loanApplication.isApproved();
+    }
+
+    static LoanApplication newLoanApplication() {
+        return new LoanApplication(new Person("John", 45), 3000);
+    }
+}
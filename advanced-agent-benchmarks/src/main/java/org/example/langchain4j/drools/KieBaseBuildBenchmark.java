@@ -0,0 +1,40 @@
+package org.example.langchain4j.drools;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.kie.api.KieBase;
+
+/**
+ * Time to build the loan application KieBase from DRL, and to get it again from {@link KieBaseRegistry}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KieBaseBuildBenchmark {
+
+    // compiles the DRL every time. The handle is closed, so the built modules don't pile up
+    @Benchmark
+    public KieBase build() {
+        try (KieBaseHandle handle = DroolsUtils.newKieBaseHandle(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME)) {
+            return handle.getKieBase();
+        }
+    }
+
+    // built on the first call, then read, hashed and found in the registry
+    @Benchmark
+    public KieBase registryHit() {
+        return DroolsUtils.createKieBase(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME);
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.runtime.KieSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of tracking the fired rules in a pooled KieSession, as done by {@link DroolsExecutorTool}.
+ * <p>
+ * Run with "-prof gc" to also compare the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ListenerOverheadBenchmark {
+
+    private ReloadableKieBase ruleBase;
+    private DroolsExecutorTool tool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ruleBase = new ReloadableKieBase(ReloadableKieBase.getSourceDirectory(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME),
+                                         Runtime.getRuntime().availableProcessors(), DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME);
+        // measure the rules, not System.out, which is synchronized
+        System.clearProperty(DroolsUtils.CONSOLE_LOG_PROPERTY);
+        tool = new DroolsExecutorTool(Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ruleBase.close();
+    }
+
+    @Benchmark
+    public boolean noListener() {
+        LoanApplication loanApplication = EvaluationBenchmark.newLoanApplication();
+        try (var lease = ruleBase.acquire(); KieSession kieSession = lease.newKieSession()) {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        }
+        return loanApplication.isApproved();
+    }
+
+    // a new listener and list per call
+    @Benchmark
+    public List<String> newListener() {
+        LoanApplication loanApplication = EvaluationBenchmark.newLoanApplication();
+        List<String> firedRules = new ArrayList<>();
+        try (var lease = ruleBase.acquire(); KieSession kieSession = lease.newKieSession()) {
+            kieSession.addEventListener(new DefaultAgendaEventListener() {
+                @Override
+                public void afterMatchFired(AfterMatchFiredEvent event) {
+                    firedRules.add(event.getMatch().getRule().getName());
+                }
+            });
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        }
+        return firedRules;
+    }
+
+    @Benchmark
+    public RuleResult firedRulesTracker() {
+        LoanApplication loanApplication = EvaluationBenchmark.newLoanApplication();
+        try (var lease = ruleBase.acquire(); var tracker = lease.borrowTracker(); KieSession kieSession = lease.newKieSession()) {
+            tracker.attach(kieSession, lease.isDecisionFacts());
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+            return tracker.toRuleResult(loanApplication.isApproved());
+        }
+    }
+
+    // the whole tool call, with the lease, the decision cache lookup and the rule set metrics
+    @Benchmark
+    public RuleResult executeRules() {
+        return tool.executeRules(EvaluationBenchmark.newLoanApplication());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example.langchain4j.drools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of {@link DroolsExecutorTool#executeRules} with a session pool, called from 1, 4 and 16 threads.
+ * The session pool has one session per available processor. Console output is off, and the decisions are recorded
+ * in the decision journal or not.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScalingBenchmark {
+
+    @Param({"false", "true"})
+    public boolean journal;
+
+    private DroolsExecutorTool tool;
+    private Path journalDirectory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // System.out is synchronized and would be the bottleneck
+        System.clearProperty(DroolsUtils.CONSOLE_LOG_PROPERTY);
+        if (journal) {
+            journalDirectory = Files.createTempDirectory("drools-journal");
+            System.setProperty(DroolsUtils.JOURNAL_DIR_PROPERTY, journalDirectory.toString());
+        }
+        try {
+            tool = new DroolsExecutorTool(Runtime.getRuntime().availableProcessors());
+        } finally {
+            System.clearProperty(DroolsUtils.JOURNAL_DIR_PROPERTY);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (tool.getJournal() != null) {
+            tool.getJournal().close();
+            System.out.println("journal: written=" + tool.getJournal().getWritten() + " dropped=" + tool.getJournal().getDropped());
+        }
+        if (journalDirectory != null) {
+            try (Stream<Path> files = Files.walk(journalDirectory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public RuleResult threads1() {
+        return tool.executeRules(EvaluationBenchmark.newLoanApplication());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public RuleResult threads4() {
+        return tool.executeRules(EvaluationBenchmark.newLoanApplication());
+    }
+
+    @Benchmark
+    @Threads(16)
+    public RuleResult threads16() {
+        return tool.executeRules(EvaluationBenchmark.newLoanApplication());
+    }
+}
@@ -10,12 +10,12 @@ import dev.langchain4j.service.V;
  */
 public interface AdvancedDroolsAgent {
 
-    // This example uses whole DRL rules to explain the decision
+    // This example uses the DRL source of the fired rules to explain the decision
     // It may leak internal business secrets. If it's not desired, consider using rule names to provide such information.
     @UserMessage("""
             Evaluate a loan application in a user request.
             A response should indicate 'approved' or 'rejected' with a brief explanation including the reason of the decision.
-            Use loan application rules text in DRL format to enrich the explanation.
+            Use the fired rules text in DRL format to enrich the explanation.
             The user request is: '{{request}}'.
             """)
     @Agent("Evaluate a loan application in user request.")
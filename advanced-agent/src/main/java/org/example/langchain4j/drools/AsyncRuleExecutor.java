@@ -0,0 +1,126 @@
+package org.example.langchain4j.drools;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Runs rule evaluations off the caller thread, so LLM tool-execution threads aren't blocked by the rule engine.
+ * <p>
+ * At most maxConcurrency evaluations run at the same time and at most queueDepth wait for a slot.
+ * Further submissions fail fast with a {@link RejectedExecutionException} instead of queueing without bound.
+ * <p>
+ * Each evaluation runs on a virtual thread on Java 21 or later. On earlier versions, a pool of maxConcurrency daemon
+ * platform threads is used instead.
+ */
+public class AsyncRuleExecutor implements AutoCloseable {
+
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    private final int maxConcurrency;
+    private final int queueDepth;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final Semaphore running;
+    // queued and running
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public AsyncRuleExecutor(int maxConcurrency, int queueDepth) {
+        this.maxConcurrency = maxConcurrency;
+        this.queueDepth = queueDepth;
+        this.running = new Semaphore(maxConcurrency);
+        ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+        this.virtualThreads = virtualThreadExecutor != null;
+        if (virtualThreads) {
+            executor = virtualThreadExecutor;
+        } else {
+            String threadNamePrefix = "drools-async-" + INSTANCE_COUNTER.incrementAndGet() + "-";
+            AtomicInteger threadCounter = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, threadNamePrefix + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // Java 17 is the compile target, so the Java 21 API is looked up at runtime
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return completes with the result of the evaluation, or exceptionally with a RejectedExecutionException
+     * when maxConcurrency evaluations are running and queueDepth are waiting
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> evaluation) {
+        if (pending.incrementAndGet() > maxConcurrency + queueDepth) {
+            pending.decrementAndGet();
+            rejected.incrementAndGet();
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Too many pending rule evaluations: " + maxConcurrency + " running and " + queueDepth + " queued"));
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> run(evaluation, future));
+        } catch (RejectedExecutionException e) {
+            // closed
+            pending.decrementAndGet();
+            rejected.incrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private <T> void run(Supplier<T> evaluation, CompletableFuture<T> future) {
+        try {
+            // virtual threads wait here without holding a platform thread
+            running.acquire();
+            try {
+                future.complete(evaluation.get());
+            } finally {
+                running.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public int getRunning() {
+        return maxConcurrency - running.availablePermits();
+    }
+
+    public int getQueued() {
+        return Math.max(0, pending.get() - getRunning());
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -1,13 +1,21 @@
 package org.example.langchain4j.drools;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import org.example.langchain4j.drools.domain.LoanApplication;
-import org.kie.api.KieBase;
+import org.example.langchain4j.drools.domain.LoanDecision;
+import org.example.langchain4j.drools.domain.Person;
 import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.DefaultRuleRuntimeEventListener;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.runtime.StatelessKieSession;
 
 /**
  * A tool for executing loan approval rules. Provides any information specific to Drools execution.
@@ -16,40 +24,277 @@ public class DroolsExecutorTool {
 
     private static final DroolsExecutorTool INSTANCE = new DroolsExecutorTool();
     public static final String LOAN_APPLICATION_DRL_FILE_NAME = "loan-application.drl";
+    // same rules, but they insert a LoanDecision instead of modifying the LoanApplication
+    public static final String LOAN_DECISION_DRL_FILE_NAME = "loan-application-decision.drl";
+    // the rule set of LOAN_APPLICATION_DRL_FILE_NAME, evaluated by executeRules
+    public static final String DEFAULT_RULE_SET_ID = "loan-application";
 
-    private KieBase kieBase;
+    private ReloadableKieBase ruleBase;
+
+    private final String drlFileName;
+
+    // the other loan products and tenants, loaded on demand
+    private final RuleSetRegistry ruleSets;
+
+    // null when the decision cache is disabled
+    private DecisionCache<RuleResult> decisionCache;
+
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    private final AsyncRuleExecutor asyncExecutor = DroolsUtils.createAsyncRuleExecutor();
+
+    private final boolean consoleLog = DroolsUtils.isConsoleLogEnabled();
+
+    // null when the journal is disabled
+    private final DecisionJournal journal = DroolsUtils.createDecisionJournal("drools-executor-tool");
 
     private DroolsExecutorTool() {
-        kieBase = DroolsUtils.createKieBase(LOAN_APPLICATION_DRL_FILE_NAME);
+        this(DroolsUtils.getSessionPoolSize(), DroolsUtils.getWarmUpIterations(), DroolsUtils.getDecisionCacheSize(),
+             DroolsUtils.isDecisionFacts());
+    }
+
+    // sessionPoolSize <= 0 disables pooling
+    DroolsExecutorTool(int sessionPoolSize) {
+        this(sessionPoolSize, 0, 0);
+    }
+
+    // warmUpIterations <= 0 disables warm-up. decisionCacheSize <= 0 disables the decision cache
+    DroolsExecutorTool(int sessionPoolSize, int warmUpIterations, int decisionCacheSize) {
+        this(sessionPoolSize, warmUpIterations, decisionCacheSize, false);
+    }
+
+    // decisionFacts selects the rules which insert a LoanDecision. Then the LoanApplication is never modified
+    DroolsExecutorTool(int sessionPoolSize, int warmUpIterations, int decisionCacheSize, boolean decisionFacts) {
+        drlFileName = decisionFacts ? LOAN_DECISION_DRL_FILE_NAME : LOAN_APPLICATION_DRL_FILE_NAME;
+        ruleBase = new ReloadableKieBase(ReloadableKieBase.getSourceDirectory(drlFileName), sessionPoolSize, drlFileName);
+        decisionCache = DroolsUtils.createDecisionCache(decisionCacheSize);
+        ruleSets = DroolsUtils.createRuleSetRegistry(ReloadableKieBase.getSourceDirectory(LOAN_APPLICATION_DRL_FILE_NAME), sessionPoolSize);
+        if (ReloadableKieBase.isReloadEnabled()) {
+            ruleBase.startWatching();
+        }
+        if (warmUpIterations > 0) {
+            Thread warmUpThread = new Thread(() -> warmUp(warmUpIterations), "drools-warmup");
+            warmUpThread.setDaemon(true);
+            warmUpThread.start();
+        } else {
+            ready.countDown();
+        }
     }
 
     public static DroolsExecutorTool getInstance() {
         return INSTANCE;
     }
 
+    // false while the warm-up is running. Requests are accepted anyway, but may be slow
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
+
+    // hit rate and other metrics. null when the decision cache is disabled
+    public DecisionCache<RuleResult> getDecisionCache() {
+        return decisionCache;
+    }
+
+    // provides the version in use and the last rebuild time
+    public ReloadableKieBase getRuleBase() {
+        return ruleBase;
+    }
+
+    // loaded rule sets and latency metrics per rule set, including the default one
+    public RuleSetRegistry getRuleSets() {
+        return ruleSets;
+    }
+
     @Tool("evaluate if a loan application is approved or not.")
     public RuleResult executeRules(@P("loan application") LoanApplication loanApplication) {
-        System.out.println("*** DroolsExecutorTool.evaluate: loanApplication = " + loanApplication);
+        if (consoleLog) {
+            System.out.println("*** DroolsExecutorTool.evaluate: loanApplication = " + loanApplication);
+        }
+        long start = System.nanoTime();
+        // an evaluation completes on the acquired version even if the rules are reloaded meanwhile
+        try (var lease = ruleBase.acquire()) {
+            RuleResult result = decide(lease, loanApplication);
+            long latency = System.nanoTime() - start;
+            ruleSets.recordEvaluation(DEFAULT_RULE_SET_ID, latency);
+            if (journal != null) {
+                DroolsUtils.recordDecision(journal, loanApplication, result.isApproved(), result::getFiredRules, lease.getVersion(), latency);
+            }
+            return result;
+        }
+    }
+
+    @Tool("evaluate if a loan application is approved or not, with the rules of the given loan product or tenant.")
+    public RuleResult executeRulesForRuleSet(@P("rule set id") String ruleSetId, @P("loan application") LoanApplication loanApplication) {
+        if (DEFAULT_RULE_SET_ID.equals(ruleSetId)) {
+            return executeRules(loanApplication);
+        }
+        if (consoleLog) {
+            System.out.println("*** DroolsExecutorTool.executeRulesForRuleSet: ruleSetId = " + ruleSetId + ", loanApplication = " + loanApplication);
+        }
+        long start = System.nanoTime();
+        // not cached. The decision cache holds the decisions of the default rule set only
+        try (var lease = ruleSets.acquire(ruleSetId)) {
+            RuleResult result = evaluate(lease, loanApplication);
+            long latency = System.nanoTime() - start;
+            ruleSets.recordEvaluation(ruleSetId, latency);
+            if (journal != null) {
+                DroolsUtils.recordDecision(journal, loanApplication, result.isApproved(), result::getFiredRules, ruleSetId + ":" + lease.getVersion(), latency);
+            }
+            return result;
+        }
+    }
+
+    @Tool("lists the ids of the rule sets, one per loan product or tenant.")
+    public List<String> getRuleSetIds() {
+        return ruleSets.getRuleSetIds();
+    }
+
+    private RuleResult decide(ReloadableKieBase.Lease lease, LoanApplication loanApplication) {
+        // an evaluation still running on a version swapped out by a reload isn't cached. Its version would drop
+        // the decisions of the new one
+        if (decisionCache == null || loanApplication.getApplicant() == null || !lease.getVersion().equals(ruleBase.getVersion())) {
+            return evaluate(lease, loanApplication);
+        }
+        int age = loanApplication.getApplicant().age();
+        int amount = loanApplication.getAmount();
+        // a reload changes the version, which drops the cached decisions
+        RuleResult cached = decisionCache.get(lease.getVersion(), age, amount);
+        if (cached != null) {
+            // the rules of this version, not the DRL file the tool started with, which may have been reloaded
+            if (!lease.isDecisionFacts()) {
+                loanApplication.setApproved(cached.isApproved());
+            }
+            return cached;
+        }
+        RuleResult result = evaluate(lease, loanApplication);
+        decisionCache.put(lease.getVersion(), age, amount, result);
+        return result;
+    }
+
+    /**
+     * Same as {@link #executeRules(LoanApplication)}, but runs on {@link AsyncRuleExecutor} instead of the caller thread.
+     * Completes exceptionally with a RejectedExecutionException when too many evaluations are pending.
+     */
+    public CompletableFuture<RuleResult> executeRulesAsync(LoanApplication loanApplication) {
+        return asyncExecutor.submit(() -> executeRules(loanApplication));
+    }
+
+    // running, queued and rejected async evaluations
+    public AsyncRuleExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    // null when the journal is disabled
+    public DecisionJournal getJournal() {
+        return journal;
+    }
+
+    private RuleResult evaluate(ReloadableKieBase.Lease lease, LoanApplication loanApplication) {
+        return evaluate(lease, loanApplication, true);
+    }
+
+    private RuleResult evaluate(ReloadableKieBase.Lease lease, LoanApplication loanApplication, boolean profile) {
+        // records rule indexes in a listener borrowed with the session, instead of a new listener and list per call
+        try (var tracker = lease.borrowTracker(); var kieSession = lease.newKieSession(profile)) {
+            tracker.attach(kieSession, lease.isDecisionFacts());
+
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+            return tracker.toRuleResult(loanApplication.isApproved());
+        }
+    }
 
-        try (var kieSession = kieBase.newKieSession()) {
+    @Tool("evaluate if each loan application in a batch is approved or not. Results are returned in the order of the loan applications.")
+    public List<RuleResult> executeRulesBatch(@P("loan applications") List<LoanApplication> loanApplications) {
+        if (consoleLog) {
+            System.out.println("*** DroolsExecutorTool.executeRulesBatch: loanApplications.size = " + loanApplications.size());
+        }
+        return evaluateBatch(loanApplications, true);
+    }
 
-            // will be replaced by TrackingAgendaEventListener after drools 10.2.0
-            List<String> firedRules = new ArrayList<>();
+    private List<RuleResult> evaluateBatch(List<LoanApplication> loanApplications, boolean profile) {
+        // all applications are inserted and fired in one execution, so fired rules are grouped by the matched application
+        Map<Object, List<String>> firedRulesByApplication = new IdentityHashMap<>();
+        Map<Object, Boolean> decisionsByApplication = new IdentityHashMap<>();
+        try (var lease = ruleBase.acquire()) {
+            StatelessKieSession kieSession = lease.newStatelessKieSession(profile);
             kieSession.addEventListener(new DefaultAgendaEventListener() {
                 @Override
                 public void afterMatchFired(org.kie.api.event.rule.AfterMatchFiredEvent event) {
-                    firedRules.add(event.getMatch().getRule().getName());
+                    String ruleName = event.getMatch().getRule().getName();
+                    for (Object object : event.getMatch().getObjects()) {
+                        firedRulesByApplication.computeIfAbsent(object, k -> new ArrayList<>()).add(ruleName);
+                    }
                 }
             });
+            if (lease.isDecisionFacts()) {
+                kieSession.addEventListener(new DefaultRuleRuntimeEventListener() {
+                    @Override
+                    public void objectInserted(ObjectInsertedEvent event) {
+                        if (event.getObject() instanceof LoanDecision loanDecision) {
+                            decisionsByApplication.put(loanDecision.loanApplication(), loanDecision.approved());
+                        }
+                    }
+                });
+            }
+            kieSession.execute(loanApplications);
+        }
 
-            kieSession.insert(loanApplication);
-            kieSession.fireAllRules();
-            return new RuleResult(loanApplication.isApproved(), firedRules);
+        List<RuleResult> results = new ArrayList<>(loanApplications.size());
+        for (LoanApplication loanApplication : loanApplications) {
+            List<String> firedRules = firedRulesByApplication.getOrDefault(loanApplication, List.of());
+            Boolean decision = decisionsByApplication.get(loanApplication);
+            results.add(new RuleResult(decision != null ? decision : loanApplication.isApproved(), firedRules));
+        }
+        return results;
+    }
+
+    // Runs synthetic applications through every rule and the same code paths as executeRules and executeRulesBatch,
+    // so the classes generated for the executable model are loaded and JIT compiled before the first request.
+    // The synthetic evaluations are kept out of the decision cache, the latency metrics and the rule profiler
+    private void warmUp(int iterations) {
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                try (var lease = ruleBase.acquire()) {
+                    for (LoanApplication loanApplication : warmUpApplications()) {
+                        evaluate(lease, loanApplication, false);
+                    }
+                }
+                evaluateBatch(warmUpApplications(), false);
+            }
+            if (consoleLog) {
+                System.out.println("*** DroolsExecutorTool.warmUp: " + iterations + " iterations in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    // ApprovableAmount, HighAmount and NotAdult
+    private static List<LoanApplication> warmUpApplications() {
+        return List.of(new LoanApplication(new Person("WarmUp", 45), 3000),
+                       new LoanApplication(new Person("WarmUp", 45), 8000),
+                       new LoanApplication(new Person("WarmUp", 15), 3000));
+    }
+
+    @Tool("provides the given rules of a rule set in DRL format, e.g. the fired rules of a decision.")
+    public String getDrlRules(@P("rule set id") String ruleSetId, @P("rule names") List<String> ruleNames) {
+        // parsed when the version was built, so neither the files are read nor the whole DRL is returned
+        try (var lease = DEFAULT_RULE_SET_ID.equals(ruleSetId) ? ruleBase.acquire() : ruleSets.acquire(ruleSetId)) {
+            return lease.getRuleSourceIndex().getSources(ruleNames);
         }
     }
 
     @Tool("provides loan application rules in DRL format.")
     public String getLoanApplicationDrlRules() {
-        return DroolsUtils.getDrlRulesAsString(LOAN_APPLICATION_DRL_FILE_NAME);
+        // the rules of the version in use, which may differ from the classpath after a reload
+        try (var lease = ruleBase.acquire()) {
+            return lease.getDrlSource(drlFileName);
+        }
     }
 }
@@ -1,64 +1,270 @@
 package org.example.langchain4j.drools;
 
-import java.io.FileInputStream;
+import java.io.IOException;
+import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 import org.drools.model.codegen.ExecutableModelProject;
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
 import org.kie.api.KieBase;
 import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
 import org.kie.api.builder.ReleaseId;
-import org.kie.api.runtime.KieContainer;
+import org.kie.api.event.KieRuntimeEventManager;
+import org.kie.api.runtime.KieSessionsPool;
 
 public class DroolsUtils {
 
-    private static final String EXAMPLE_PKG = "org/example/";
+    static final String EXAMPLE_PKG = "org/example/";
+
+    // initial size of the KieSession pool. 0 (default) means a new KieSession is created for each evaluation
+    public static final String SESSION_POOL_SIZE_PROPERTY = "drools.session.pool.size";
+
+    // number of synthetic evaluations run through every rule path before the first request. 0 (default) disables warm-up
+    public static final String WARM_UP_ITERATIONS_PROPERTY = "drools.warmup.iterations";
+
+    // maximum number of decisions cached by applicant age and amount. 0 (default) disables the cache
+    public static final String DECISION_CACHE_SIZE_PROPERTY = "drools.decision.cache.size";
+
+    // print each evaluated loan application to System.out. Off by default: System.out is synchronized and unbuffered,
+    // so it serializes concurrent evaluations
+    public static final String CONSOLE_LOG_PROPERTY = "drools.console.log";
+
+    // directory of the decision journal. When set, decisions are recorded there
+    public static final String JOURNAL_DIR_PROPERTY = "drools.journal.dir";
+
+    // size of a journal file before rolling over to the next one. Defaults to 64 MB
+    public static final String JOURNAL_MAX_FILE_SIZE_PROPERTY = "drools.journal.max.file.size";
+
+    // number of decisions buffered for the journal writer. Further decisions are dropped. Defaults to 8192
+    public static final String JOURNAL_BUFFER_SIZE_PROPERTY = "drools.journal.buffer.size";
+
+    // profile matches and consequence latency per rule in every KieSession created through ReloadableKieBase
+    public static final String PROFILER_ENABLED_PROPERTY = "drools.profiler.enabled";
+
+    // seconds between printing the rule profile. 0 (default) doesn't print
+    public static final String PROFILER_DUMP_INTERVAL_PROPERTY = "drools.profiler.dump.interval";
+
+    // maximum number of async rule evaluations running at the same time. Defaults to the number of available processors
+    public static final String ASYNC_MAX_CONCURRENCY_PROPERTY = "drools.async.max.concurrency";
+
+    // maximum number of async rule evaluations waiting to run. Further ones are rejected. Defaults to 1000
+    public static final String ASYNC_QUEUE_DEPTH_PROPERTY = "drools.async.queue.depth";
+
+    // total number of rules of the rule sets RuleSetRegistry keeps loaded. Defaults to 10000
+    public static final String RULE_SETS_MAX_RULES_PROPERTY = "drools.rulesets.max.rules";
+
+    // maximum number of rules of one rule set in RuleSetRegistry. Defaults to a quarter of drools.rulesets.max.rules
+    public static final String RULE_SETS_MAX_RULES_PER_RULE_SET_PROPERTY = "drools.rulesets.max.rules.per.ruleset";
+
+    // DroolsExecutorTool evaluates loan-application-decision.drl, whose rules insert a LoanDecision instead of modifying the LoanApplication
+    public static final String DECISION_FACTS_PROPERTY = "drools.decision.facts";
+
+    // record the heap retained by each KieBase in KieBaseRegistry. Runs full GCs around each build, for diagnostics only
+    public static final String REGISTRY_MEASURE_HEAP_PROPERTY = "drools.registry.measure.heap";
+
+    // identical DRL contents are compiled once and the KieBase is shared
+    private static final KieBaseRegistry KIE_BASE_REGISTRY = new KieBaseRegistry(Boolean.getBoolean(REGISTRY_MEASURE_HEAP_PROPERTY));
+
+    // each build gets its own ReleaseId, so closing one KieBaseHandle doesn't affect the others
+    private static final AtomicLong BUILD_COUNTER = new AtomicLong();
+
+    // null when profiling is disabled
+    private static final RuleProfiler RULE_PROFILER = createRuleProfiler();
 
     private DroolsUtils() {
     }
 
     // expects files under resources/org/example/
     public static KieBase createKieBase(String... fileNames) {
+        return createKieBase(toPaths(fileNames));
+    }
+
+    // directory of org/example/ on the classpath which contains the given file
+    public static Path getDrlDirectory(String fileName) {
+        return toPath(DroolsUtils.class.getClassLoader().getResource(EXAMPLE_PKG + fileName)).getParent();
+    }
+
+    public static KieBase createKieBase(List<Path> paths) {
+        // shared KieBases are kept for the lifetime of the JVM, so their handles are never closed
+        return KIE_BASE_REGISTRY.getOrBuild(readDrlFiles(paths), drlFiles -> buildKieBaseHandle(drlFiles).getKieBase());
+    }
+
+    /**
+     * Builds a KieBase which is not shared through KieBaseRegistry. The caller owns it and must close the handle
+     * when the KieBase is no longer used.
+     */
+    public static KieBaseHandle newKieBaseHandle(String... fileNames) {
+        return newKieBaseHandle(toPaths(fileNames));
+    }
+
+    public static KieBaseHandle newKieBaseHandle(List<Path> paths) {
+        return buildKieBaseHandle(readDrlFiles(paths));
+    }
+
+    public static KieBaseRegistry getKieBaseRegistry() {
+        return KIE_BASE_REGISTRY;
+    }
+
+    private static KieBaseHandle buildKieBaseHandle(Map<String, byte[]> drlFiles) {
+        KieServices ks = KieServices.Factory.get();
+        KieFileSystem kfs = ks.newKieFileSystem();
+        drlFiles.forEach((resourcePath, bytes) -> kfs.write("src/main/resources/" + resourcePath,
+                                                            ks.getResources().newByteArrayResource(bytes)));
+        ReleaseId releaseId = ks.newReleaseId("org.example.langchain4j.drools", "drools-agent", "1.0." + BUILD_COUNTER.getAndIncrement());
+        kfs.generateAndWritePomXML(releaseId);
+        KieBuilder kieBuilder = ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            ks.getRepository().removeKieModule(releaseId);
+            throw new RuntimeException("Failed to build " + drlFiles.keySet() + ": " + kieBuilder.getResults().getMessages(Message.Level.ERROR));
+        }
+        return new KieBaseHandle(releaseId, ks.newKieContainer(releaseId));
+    }
+
+    private static List<Path> toPaths(String... fileNames) {
         List<Path> paths = new ArrayList<>();
         for (int i = 0; i < fileNames.length; i++) {
-            URL url = DroolsUtils.class.getClassLoader().getResource(EXAMPLE_PKG + fileNames[i]);
-            try {
-                paths.add(Paths.get(url.toURI()));
-            } catch (URISyntaxException e) {
-                throw new RuntimeException(e);
+            paths.add(toPath(DroolsUtils.class.getClassLoader().getResource(EXAMPLE_PKG + fileNames[i])));
+        }
+        return paths;
+    }
+
+    // a resource in a jar, e.g. when this module is a dependency, is read through a zip FileSystem
+    private static Path toPath(URL url) {
+        try {
+            URI uri = url.toURI();
+            if ("jar".equals(uri.getScheme())) {
+                try {
+                    FileSystems.newFileSystem(uri, Map.of());
+                } catch (FileSystemAlreadyExistsException e) {
+                    // opened by a previous call
+                }
             }
+            return Paths.get(uri);
+        } catch (URISyntaxException | IOException e) {
+            throw new RuntimeException("Failed to resolve DRL file: " + url, e);
         }
-        return createKieBase(paths);
     }
 
-    public static KieBase createKieBase(List<Path> paths) {
-        KieServices ks = KieServices.Factory.get();
-        KieFileSystem kfs = ks.newKieFileSystem();
+    private static Map<String, byte[]> readDrlFiles(List<Path> paths) {
+        Map<String, byte[]> drlFiles = new LinkedHashMap<>();
         for (Path path : paths) {
             try {
-                kfs.write("src/main/resources/" + EXAMPLE_PKG + path.getFileName().toString(),
-                          ks.getResources().newInputStreamResource(new FileInputStream(path.toFile())));
+                drlFiles.put(EXAMPLE_PKG + path.getFileName().toString(), Files.readAllBytes(path));
             } catch (Exception e) {
                 throw new RuntimeException("Failed to read DRL file: " + path, e);
             }
         }
-        ReleaseId releaseId = ks.newReleaseId("org.example.langchain4j.drools", "drools-agent", "1.0.0");
-        kfs.generateAndWritePomXML(releaseId);
-        ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
-        KieContainer kcontainer = ks.newKieContainer(releaseId);
-        return kcontainer.getKieBase();
+        return drlFiles;
+    }
+
+    private static RuleProfiler createRuleProfiler() {
+        if (!Boolean.getBoolean(PROFILER_ENABLED_PROPERTY)) {
+            return null;
+        }
+        RuleProfiler profiler = new RuleProfiler();
+        long dumpInterval = Long.getLong(PROFILER_DUMP_INTERVAL_PROPERTY, 0);
+        if (dumpInterval > 0) {
+            profiler.startPeriodicDump(dumpInterval);
+        }
+        return profiler;
+    }
+
+    // null when drools.profiler.enabled is not true
+    public static RuleProfiler getRuleProfiler() {
+        return RULE_PROFILER;
+    }
+
+    // Attaches the rule profiler to the session when profiling is enabled. Works for stateful and stateless sessions
+    public static <T extends KieRuntimeEventManager> T attachRuleProfiler(T session) {
+        if (RULE_PROFILER != null) {
+            RULE_PROFILER.attach(session);
+        }
+        return session;
+    }
+
+    public static int getSessionPoolSize() {
+        return Integer.getInteger(SESSION_POOL_SIZE_PROPERTY, 0);
+    }
+
+    public static boolean isConsoleLogEnabled() {
+        return Boolean.getBoolean(CONSOLE_LOG_PROPERTY);
+    }
+
+    public static int getWarmUpIterations() {
+        return Integer.getInteger(WARM_UP_ITERATIONS_PROPERTY, 0);
+    }
+
+    // Returns null when poolSize <= 0. The pool grows beyond poolSize if more sessions are used concurrently.
+    public static KieSessionsPool createSessionsPool(KieBase kieBase, int poolSize) {
+        return poolSize > 0 ? kieBase.newKieSessionsPool(poolSize) : null;
+    }
+
+    public static boolean isDecisionFacts() {
+        return Boolean.getBoolean(DECISION_FACTS_PROPERTY);
+    }
+
+    public static int getDecisionCacheSize() {
+        return Integer.getInteger(DECISION_CACHE_SIZE_PROPERTY, 0);
+    }
+
+    // Returns null when maxSize <= 0
+    public static <V> DecisionCache<V> createDecisionCache(int maxSize) {
+        return maxSize > 0 ? new DecisionCache<>(maxSize) : null;
+    }
+
+    // Returns null when drools.journal.dir is not set. The journal is flushed and closed on JVM shutdown
+    public static DecisionJournal createDecisionJournal(String name) {
+        String dir = System.getProperty(JOURNAL_DIR_PROPERTY);
+        if (dir == null || dir.isBlank()) {
+            return null;
+        }
+        DecisionJournal journal = new DecisionJournal(Paths.get(dir), name,
+                                                      Integer.getInteger(JOURNAL_BUFFER_SIZE_PROPERTY, 8192),
+                                                      Long.getLong(JOURNAL_MAX_FILE_SIZE_PROPERTY, 64L * 1024 * 1024));
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "drools-journal-shutdown-" + name));
+        return journal;
+    }
+
+    // the fields of the application are copied, because it may be changed after the evaluation
+    public static boolean recordDecision(DecisionJournal journal, LoanApplication loanApplication, boolean approved,
+                                         Supplier<List<String>> firedRules, String kieBaseVersion, long latencyNanos) {
+        Person applicant = loanApplication.getApplicant();
+        return journal.record(applicant != null ? applicant.name() : null, applicant != null ? applicant.age() : -1,
+                              loanApplication.getAmount(), approved, firedRules, kieBaseVersion, latencyNanos);
+    }
+
+    // rule sets are the DRL files in the given directory
+    public static RuleSetRegistry createRuleSetRegistry(Path directory, int sessionPoolSize) {
+        int maxRules = Integer.getInteger(RULE_SETS_MAX_RULES_PROPERTY, 10_000);
+        return new RuleSetRegistry(directory, sessionPoolSize, maxRules,
+                                   Integer.getInteger(RULE_SETS_MAX_RULES_PER_RULE_SET_PROPERTY, Math.max(1, maxRules / 4)));
+    }
+
+    public static AsyncRuleExecutor createAsyncRuleExecutor() {
+        return new AsyncRuleExecutor(Integer.getInteger(ASYNC_MAX_CONCURRENCY_PROPERTY, Runtime.getRuntime().availableProcessors()),
+                                     Integer.getInteger(ASYNC_QUEUE_DEPTH_PROPERTY, 1000));
     }
 
     public static String getDrlRulesAsString(String drlFileName) {
-        URL url = DroolsUtils.class.getClassLoader().getResource(EXAMPLE_PKG + drlFileName);
         try {
-            Path path = Paths.get(url.toURI());
-            return java.nio.file.Files.readString(path);
+            Path path = toPath(DroolsUtils.class.getClassLoader().getResource(EXAMPLE_PKG + drlFileName));
+            return Files.readString(path);
         } catch (Exception e) {
             throw new RuntimeException("Failed to read DRL file: " + drlFileName, e);
         }
@@ -0,0 +1,108 @@
+package org.example.langchain4j.drools;
+
+import java.util.Arrays;
+import java.util.Queue;
+
+import org.example.langchain4j.drools.domain.LoanDecision;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.ObjectDeletedEvent;
+import org.kie.api.event.rule.ObjectInsertedEvent;
+import org.kie.api.event.rule.ObjectUpdatedEvent;
+import org.kie.api.event.rule.RuleRuntimeEventListener;
+import org.kie.api.runtime.KieSession;
+
+/**
+ * Records the rules fired in a KieSession as indexes of a {@link RuleIndex}, in firing order,
+ * and the {@link LoanDecision} inserted by rules which don't modify the LoanApplication.
+ * <p>
+ * Instances are borrowed from a pool of the KieBase version with {@link ReloadableKieBase.Lease#borrowTracker()},
+ * like the pooled sessions, and returned on {@link #close()}. So tracking an evaluation allocates only the int array
+ * held by the {@link RuleResult}, also on virtual threads, where a thread-local instance would be created per evaluation.
+ * Not thread-safe. Use it for one evaluation at a time between borrowTracker() and close().
+ */
+final class FiredRulesTracker extends DefaultAgendaEventListener implements RuleRuntimeEventListener, AutoCloseable {
+
+    private static final int[] NO_RULES = new int[0];
+
+    // bounded, so a tracker returned to a full pool is left to the GC
+    private final Queue<FiredRulesTracker> pool;
+    private boolean borrowed;
+    private RuleIndex ruleIndex;
+    private int[] firedRules = new int[8];
+    private int count;
+    private LoanDecision decision;
+
+    FiredRulesTracker(Queue<FiredRulesTracker> pool) {
+        this.pool = pool;
+    }
+
+    // Clears the tracker for a new evaluation
+    FiredRulesTracker start(RuleIndex ruleIndex) {
+        this.borrowed = true;
+        this.ruleIndex = ruleIndex;
+        this.count = 0;
+        this.decision = null;
+        return this;
+    }
+
+    /**
+     * Listens to the fired rules and, if decisionFacts, to the inserted decisions.
+     * A RuleRuntimeEventListener costs an event object per insert, so it is added only when the rules insert decisions.
+     */
+    FiredRulesTracker attach(KieSession kieSession, boolean decisionFacts) {
+        kieSession.addEventListener((DefaultAgendaEventListener) this);
+        if (decisionFacts) {
+            kieSession.addEventListener((RuleRuntimeEventListener) this);
+        }
+        return this;
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        int index = ruleIndex.indexOf(event.getMatch().getRule().getName());
+        if (index < 0) {
+            // a rule of a newer version, when the container was updated while this evaluation was still running
+            // after the drain timeout. It can't be resolved from this RuleIndex, so it is left out of the result
+            return;
+        }
+        if (count == firedRules.length) {
+            firedRules = Arrays.copyOf(firedRules, count * 2);
+        }
+        firedRules[count++] = index;
+    }
+
+    @Override
+    public void objectInserted(ObjectInsertedEvent event) {
+        if (event.getObject() instanceof LoanDecision loanDecision) {
+            decision = loanDecision;
+        }
+    }
+
+    @Override
+    public void objectUpdated(ObjectUpdatedEvent event) {
+    }
+
+    @Override
+    public void objectDeleted(ObjectDeletedEvent event) {
+    }
+
+    /**
+     * @param approved the LoanApplication's approved flag. Ignored when the rules inserted a LoanDecision
+     */
+    RuleResult toRuleResult(boolean approved) {
+        int[] indexes = count == 0 ? NO_RULES : Arrays.copyOf(firedRules, count);
+        return new RuleResult(decision != null ? decision.approved() : approved, ruleIndex, indexes);
+    }
+
+    // Returns the tracker to its pool. Idempotent, so a second close() doesn't hand it out twice
+    @Override
+    public void close() {
+        if (borrowed) {
+            borrowed = false;
+            // the decision refers to the application, which mustn't be retained by the pool
+            decision = null;
+            pool.offer(this);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.langchain4j.drools;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.runtime.KieContainer;
+
+/**
+ * A KieBase built into its own KieModule with a unique ReleaseId.
+ * Closing the handle disposes the KieContainer and removes the KieModule from the KieRepository,
+ * so repeated builds don't accumulate in the JVM.
+ */
+public final class KieBaseHandle implements AutoCloseable {
+
+    private final ReleaseId releaseId;
+    private final KieContainer kieContainer;
+    private final KieBase kieBase;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    KieBaseHandle(ReleaseId releaseId, KieContainer kieContainer) {
+        this.releaseId = releaseId;
+        this.kieContainer = kieContainer;
+        this.kieBase = kieContainer.getKieBase();
+    }
+
+    public KieBase getKieBase() {
+        if (closed.get()) {
+            throw new IllegalStateException("KieBase " + releaseId + " is already closed");
+        }
+        return kieBase;
+    }
+
+    public ReleaseId getReleaseId() {
+        return releaseId;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    // KieSessions created from the KieBase must be disposed before closing the handle
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            kieContainer.dispose();
+            KieServices.Factory.get().getRepository().removeKieModule(releaseId);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "KieBaseHandle{" + releaseId + (closed.get() ? ", closed" : "") + '}';
+    }
+}
@@ -0,0 +1,204 @@
+package org.example.langchain4j.drools;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.drools.base.common.NetworkNode;
+import org.drools.base.reteoo.InitialFactImpl;
+import org.drools.base.reteoo.NodeTypeEnums;
+import org.drools.core.common.InternalWorkingMemory;
+import org.drools.core.common.Memory;
+import org.drools.core.common.NodeMemories;
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.core.reteoo.AccumulateNode;
+import org.drools.core.reteoo.BetaMemory;
+import org.drools.core.reteoo.EntryPointNode;
+import org.drools.core.reteoo.ObjectTypeNode;
+import org.drools.core.reteoo.SegmentMemory;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+
+/**
+ * Walks the Rete network of a KieBase and the node memories of a KieSession, to see how the network is shaped
+ * and how much heap a KieBase and its sessions use.
+ * <p>
+ * In Phreak alpha nodes have no memory: the alpha memory of an ObjectTypeNode is the set of facts of its type.
+ * Beta memories are the left and right tuple memories of the join, not, exists and accumulate nodes.
+ * Relies on Drools internals (drools-core 10.x).
+ */
+public final class KieBaseInspector {
+
+    private KieBaseInspector() {
+    }
+
+    public static NetworkReport inspect(KieBase kieBase) {
+        InternalRuleBase ruleBase = (InternalRuleBase) kieBase;
+        Map<String, Integer> nodesByType = new TreeMap<>();
+        int alphaNodes = 0;
+        int betaNodes = 0;
+        int sharedNodes = 0;
+        int memoryNodes = 0;
+
+        // a beta node is a sink of both its inputs, so it is reached twice
+        Set<Integer> visited = new HashSet<>();
+        Deque<NetworkNode> toVisit = new ArrayDeque<>(ruleBase.getRete().getEntryPointNodes().values());
+        while (!toVisit.isEmpty()) {
+            NetworkNode node = toVisit.poll();
+            if (!visited.add(node.getId())) {
+                continue;
+            }
+            nodesByType.merge(node.getClass().getSimpleName(), 1, Integer::sum);
+            if (node.getType() == NodeTypeEnums.AlphaNode) {
+                alphaNodes++;
+            }
+            if (NodeTypeEnums.isBetaNode(node)) {
+                betaNodes++;
+            }
+            if (NodeTypeEnums.isMemoryFactory(node)) {
+                memoryNodes++;
+            }
+            // entry point and object type nodes are shared by all the rules matching their type, so they aren't counted
+            if (!(node instanceof EntryPointNode) && !(node instanceof ObjectTypeNode) && node.getAssociatedRules().length > 1) {
+                sharedNodes++;
+            }
+            NetworkNode[] sinks = node.getSinks();
+            if (sinks != null) {
+                Collections.addAll(toVisit, sinks);
+            }
+        }
+        return new NetworkReport(ruleBase.getKiePackages().stream().mapToInt(p -> p.getRules().size()).sum(),
+                                 visited.size(), nodesByType, alphaNodes, betaNodes, sharedNodes, memoryNodes,
+                                 ruleBase.getMemoryCount());
+    }
+
+    public static SessionReport inspect(KieSession kieSession) {
+        InternalWorkingMemory workingMemory = (InternalWorkingMemory) kieSession;
+
+        // alpha memories: the facts reaching each object type node
+        Map<String, Long> alphaMemories = new TreeMap<>();
+        for (ObjectTypeNode objectTypeNode : workingMemory.getKnowledgeBase().getRete().getObjectTypeNodes()) {
+            String type = objectTypeNode.getObjectType().getClassName();
+            // not a fact of the application
+            if (type.equals(InitialFactImpl.class.getName())) {
+                continue;
+            }
+            long facts = 0;
+            for (Iterator<?> it = objectTypeNode.getFactHandlesIterator(workingMemory); it.hasNext(); it.next()) {
+                facts++;
+            }
+            if (facts > 0) {
+                alphaMemories.merge(type, facts, Long::sum);
+            }
+        }
+
+        // node memories are created lazily, when a fact or tuple first reaches the node
+        NodeMemories nodeMemories = workingMemory.getNodeMemories();
+        int allocated = 0;
+        long leftTuples = 0;
+        long rightTuples = 0;
+        Set<SegmentMemory> segments = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < nodeMemories.length(); i++) {
+            Memory memory = nodeMemories.peekNodeMemory(i);
+            if (memory == null) {
+                continue;
+            }
+            allocated++;
+            if (memory.getSegmentMemory() != null) {
+                segments.add(memory.getSegmentMemory());
+            }
+            BetaMemory<?> betaMemory = memory instanceof AccumulateNode.AccumulateMemory accumulateMemory
+                    ? accumulateMemory.getBetaMemory()
+                    : memory instanceof BetaMemory<?> beta ? beta : null;
+            if (betaMemory != null) {
+                leftTuples += betaMemory.getLeftTupleMemory().size();
+                rightTuples += betaMemory.getRightTupleMemory().size();
+            }
+        }
+        return new SessionReport(kieSession.getFactCount(), alphaMemories, allocated, segments.size(), leftTuples, rightTuples);
+    }
+
+    /**
+     * Estimates the heap retained by one KieBase, e.g. {@code () -> DroolsUtils.newKieBaseHandle(paths)}.
+     * The handle is closed when measured. Compare KieBases of different sizes rather than reading the number alone,
+     * because the first build also loads classes.
+     */
+    public static long estimateKieBaseBytes(Supplier<KieBaseHandle> builder) {
+        long before = usedHeapAfterGc();
+        try (KieBaseHandle handle = builder.get()) {
+            long after = usedHeapAfterGc();
+            Reference.reachabilityFence(handle.getKieBase());
+            return Math.max(0, after - before);
+        }
+    }
+
+    /**
+     * Estimates the heap retained by one KieSession of the KieBase, after populate inserted its facts and fired the rules.
+     * Creates the given number of sessions and divides their retained heap, to plan pooled or long-lived sessions.
+     */
+    public static long estimateSessionBytes(KieBase kieBase, int sessions, Consumer<KieSession> populate) {
+        List<KieSession> kieSessions = new ArrayList<>(sessions);
+        long before = usedHeapAfterGc();
+        try {
+            for (int i = 0; i < sessions; i++) {
+                KieSession kieSession = kieBase.newKieSession();
+                kieSessions.add(kieSession);
+                populate.accept(kieSession);
+            }
+            long after = usedHeapAfterGc();
+            return Math.max(0, after - before) / sessions;
+        } finally {
+            kieSessions.forEach(KieSession::dispose);
+        }
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * @param memoryNodes nodes which allocate a memory in each session that reaches them
+     * @param memoryIds   size of the node memory array of each session
+     */
+    public record NetworkReport(int rules, int nodes, Map<String, Integer> nodesByType, int alphaNodes, int betaNodes,
+                                int sharedNodes, int memoryNodes, int memoryIds) {
+
+        public String report() {
+            StringBuilder sb = new StringBuilder(String.format("KieBase network: %d rules, %d nodes, %d alpha, %d beta, %d shared, %d with memory",
+                                                               rules, nodes, alphaNodes, betaNodes, sharedNodes, memoryNodes));
+            nodesByType.forEach((type, count) -> sb.append(String.format("%n  %-28s %8d", type, count)));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * @param alphaMemories facts by object type
+     * @param leftTuples    tuples held in the left memories of beta nodes
+     * @param rightTuples   facts held in the right memories of beta nodes
+     */
+    public record SessionReport(long facts, Map<String, Long> alphaMemories, int nodeMemories, int segmentMemories,
+                                long leftTuples, long rightTuples) {
+
+        public String report() {
+            StringBuilder sb = new StringBuilder(String.format("KieSession memory: %d facts, %d node memories, %d segments, beta memories %d left / %d right tuples",
+                                                               facts, nodeMemories, segmentMemories, leftTuples, rightTuples));
+            alphaMemories.forEach((type, count) -> sb.append(String.format("%n  %-60s %8d", type, count)));
+            return sb.toString();
+        }
+    }
+}
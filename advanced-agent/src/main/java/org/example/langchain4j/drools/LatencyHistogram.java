@@ -0,0 +1,64 @@
+package org.example.langchain4j.drools;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts latencies in power-of-2 buckets, so recording one takes a few atomic increments. Thread-safe.
+ * Percentiles are approximate: the upper bound of the bucket containing them.
+ */
+final class LatencyHistogram {
+
+    // 2^0 ns .. 2^62 ns
+    private static final int BUCKETS = 63;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private volatile long maxNanos;
+
+    void record(long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        // bucket b holds latencies in [2^(b-1), 2^b)
+        buckets.incrementAndGet(Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, nanos))));
+        if (nanos > maxNanos) {
+            // racy, may miss a concurrent maximum
+            maxNanos = nanos;
+        }
+    }
+
+    long getCount() {
+        return count.sum();
+    }
+
+    long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    long getMaxNanos() {
+        return maxNanos;
+    }
+
+    // e.g. 0.99 for p99. 0 when nothing is recorded
+    long percentile(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+}
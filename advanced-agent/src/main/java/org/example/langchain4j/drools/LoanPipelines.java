@@ -0,0 +1,47 @@
+package org.example.langchain4j.drools;
+
+import dev.langchain4j.agentic.AgenticServices;
+import dev.langchain4j.agentic.supervisor.SupervisorResponseStrategy;
+import dev.langchain4j.model.chat.ChatModel;
+
+/**
+ * Two topologies of the same loan evaluation, behind the same {@link LoanAssistant} interface.
+ * <p>
+ * The supervisor plans with the planner model, lets {@link AdvancedDroolsAgent} call the Drools tools and writes
+ * a summary with another LLM call. The templated sequence extracts the application with one LLM call and writes
+ * the response with {@link TemplateResponseAgent}, so the LLM is used again only when the decision isn't definitive.
+ */
+public final class LoanPipelines {
+
+    private LoanPipelines() {
+    }
+
+    public static AdvancedDroolsAgent droolsAgent(ChatModel chatModel) {
+        return AgenticServices.agentBuilder(AdvancedDroolsAgent.class)
+                .chatModel(chatModel)
+                .outputKey("evaluation")
+                .build();
+    }
+
+    // same as DroolsAgentTest
+    public static LoanAssistant supervisor(ChatModel chatModel, ChatModel plannerModel) {
+        return AgenticServices.supervisorBuilder(LoanAssistant.class)
+                .chatModel(plannerModel)
+                .responseStrategy(SupervisorResponseStrategy.SUMMARY)
+                .subAgents(droolsAgent(chatModel))
+                .outputKey("summary")
+                .build();
+    }
+
+    public static LoanAssistant templated(ChatModel chatModel) {
+        LoanApplicationExtractor extractor = AgenticServices.agentBuilder(LoanApplicationExtractor.class)
+                .chatModel(chatModel)
+                .outputKey("loanApplication")
+                .build();
+
+        return AgenticServices.sequenceBuilder(LoanAssistant.class)
+                .subAgents(extractor, new TemplateResponseAgent(droolsAgent(chatModel)))
+                .outputKey("summary")
+                .build();
+    }
+}
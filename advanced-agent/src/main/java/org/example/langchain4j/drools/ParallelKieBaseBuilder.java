@@ -0,0 +1,134 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.kie.api.KieBase;
+
+/**
+ * Compiles independent KieBases concurrently on a bounded number of threads.
+ * <p>
+ * Each build returns a future, so a caller can start serving as soon as the rule sets it needs first are available
+ * while the others are still compiling. Queued builds run in the order of their priority (lower first),
+ * then in the order of submission.
+ */
+public class ParallelKieBaseBuilder implements AutoCloseable {
+
+    // number of KieBases compiled at the same time. Defaults to the number of available processors
+    public static final String BUILD_THREADS_PROPERTY = "drools.build.threads";
+
+    public static final int DEFAULT_PRIORITY = 100;
+
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ParallelKieBaseBuilder() {
+        this(getBuildThreads());
+    }
+
+    public ParallelKieBaseBuilder(int threads) {
+        String threadNamePrefix = "drools-build-" + INSTANCE_COUNTER.incrementAndGet() + "-";
+        AtomicInteger threadCounter = new AtomicInteger();
+        // the queue is unbounded, so core threads are the only threads
+        executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, threadNamePrefix + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static int getBuildThreads() {
+        return Integer.getInteger(BUILD_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Builds a KieBase shared through KieBaseRegistry, same as {@link DroolsUtils#createKieBase(List)}.
+     */
+    public CompletableFuture<KieBase> build(List<Path> paths) {
+        return build(DEFAULT_PRIORITY, paths);
+    }
+
+    public CompletableFuture<KieBase> build(int priority, List<Path> paths) {
+        return submit(priority, () -> DroolsUtils.createKieBase(paths));
+    }
+
+    /**
+     * Builds a KieBase owned by the caller, same as {@link DroolsUtils#newKieBaseHandle(List)}.
+     */
+    public CompletableFuture<KieBaseHandle> buildHandle(int priority, List<Path> paths) {
+        return submit(priority, () -> DroolsUtils.newKieBaseHandle(paths));
+    }
+
+    // number of builds waiting for a thread
+    public int getQueuedBuilds() {
+        return executor.getQueue().size();
+    }
+
+    <T> CompletableFuture<T> submit(int priority, Supplier<T> build) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(new BuildTask<>(priority, sequence.getAndIncrement(), build, future));
+        return future;
+    }
+
+    /**
+     * Running builds complete. Queued builds are cancelled.
+     */
+    @Override
+    public void close() {
+        List<Runnable> queued = new ArrayList<>();
+        executor.getQueue().drainTo(queued);
+        // not shutdownNow(), which would interrupt the running builds
+        executor.shutdown();
+        for (Runnable task : queued) {
+            ((BuildTask<?>) task).future.cancel(false);
+        }
+    }
+
+    private static final class BuildTask<T> implements Runnable, Comparable<BuildTask<?>> {
+
+        private final int priority;
+        private final long sequence;
+        private final Supplier<T> build;
+        private final CompletableFuture<T> future;
+
+        private BuildTask(int priority, long sequence, Supplier<T> build, CompletableFuture<T> future) {
+            this.priority = priority;
+            this.sequence = sequence;
+            this.build = build;
+            this.future = future;
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                T result = build.get();
+                if (!future.complete(result) && result instanceof AutoCloseable closeable) {
+                    // cancelled while building. Nobody else can close it
+                    closeable.close();
+                }
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+
+        @Override
+        public int compareTo(BuildTask<?> other) {
+            int result = Integer.compare(priority, other.priority);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -0,0 +1,493 @@
+package org.example.langchain4j.drools;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.drools.model.codegen.ExecutableModelProject;
+import org.example.langchain4j.drools.domain.LoanDecision;
+import org.kie.api.KieBase;
+import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
+import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.Message;
+import org.kie.api.builder.ReleaseId;
+import org.kie.api.builder.Results;
+import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionsPool;
+import org.kie.api.runtime.StatelessKieSession;
+
+/**
+ * A KieBase which is rebuilt when its DRL files change, without stopping evaluations.
+ * <p>
+ * Two KieContainers are used alternately. A reload compiles the changed files into a new KieModule version on the
+ * reload thread, waits until no evaluation uses the standby container (up to the drain timeout), updates it incrementally with
+ * {@link KieContainer#updateToVersion(ReleaseId)} and then swaps it in atomically.
+ * Evaluations which acquired the previous version finish on it.
+ */
+public class ReloadableKieBase implements AutoCloseable {
+
+    // watch the DRL files and reload them on change
+    public static final String RELOAD_ENABLED_PROPERTY = "drools.reload.enabled";
+    // directory containing the DRL files. Defaults to the org/example/ directory on the classpath
+    public static final String RELOAD_DIR_PROPERTY = "drools.reload.dir";
+    // milliseconds reload() and close() wait for the evaluations still using a version. Defaults to 10000
+    public static final String DRAIN_TIMEOUT_PROPERTY = "drools.reload.drain.timeout";
+
+    private static final String GROUP_ID = "org.example.langchain4j.drools";
+    private static final AtomicInteger INSTANCE_COUNTER = new AtomicInteger();
+
+    private final KieServices ks = KieServices.Factory.get();
+    private final String artifactId = "drools-agent-reloadable-" + INSTANCE_COUNTER.incrementAndGet();
+    private final Path sourceDirectory;
+    private final List<String> fileNames;
+    private final int sessionPoolSize;
+
+    private final AtomicReference<RuleBaseVersion> active = new AtomicReference<>();
+    // the version swapped out by the last reload. Guarded by this
+    private RuleBaseVersion standby;
+
+    private int versionCounter = 0;
+    private volatile long lastRebuildTimeMillis = -1;
+    private volatile String lastReloadError;
+    private volatile Thread watcherThread;
+    private volatile WatchService watchService;
+    private volatile long drainTimeoutMillis = Long.getLong(DRAIN_TIMEOUT_PROPERTY, 10_000);
+    private volatile boolean closed;
+    private final boolean consoleLog = DroolsUtils.isConsoleLogEnabled();
+
+    public ReloadableKieBase(Path sourceDirectory, int sessionPoolSize, String... fileNames) {
+        this(sourceDirectory, sessionPoolSize, true, fileNames);
+    }
+
+    /**
+     * @param shared true to get the first version from KieBaseRegistry. It is then kept for the lifetime of the JVM.
+     *               false to build it in a container owned by this instance, so close() releases all the memory
+     */
+    ReloadableKieBase(Path sourceDirectory, int sessionPoolSize, boolean shared, String... fileNames) {
+        this.sourceDirectory = sourceDirectory;
+        this.fileNames = List.of(fileNames);
+        this.sessionPoolSize = sessionPoolSize;
+
+        if (shared) {
+            // the first version is shared through KieBaseRegistry, so it is never updated in place
+            Map<String, String> drlSources = readDrlSources();
+            KieBase kieBase = DroolsUtils.createKieBase(paths());
+            active.set(new RuleBaseVersion(null, kieBase, DroolsUtils.createSessionsPool(kieBase, sessionPoolSize),
+                                           nextVersion(), null, drlSources));
+        } else if (!reload()) {
+            throw new RuntimeException("Failed to build " + this.fileNames + ": " + lastReloadError);
+        }
+    }
+
+    public static boolean isReloadEnabled() {
+        return Boolean.getBoolean(RELOAD_ENABLED_PROPERTY);
+    }
+
+    public static Path getSourceDirectory(String fileName) {
+        String dir = System.getProperty(RELOAD_DIR_PROPERTY);
+        return dir != null ? Paths.get(dir) : DroolsUtils.getDrlDirectory(fileName);
+    }
+
+    /**
+     * Returns the current version. Close the lease when the evaluation completes, so a later reload can reuse it.
+     */
+    public Lease acquire() {
+        if (closed) {
+            throw new IllegalStateException("Closed: " + fileNames);
+        }
+        while (true) {
+            RuleBaseVersion version = active.get();
+            version.inFlight.incrementAndGet();
+            if (active.get() == version) {
+                return new Lease(version);
+            }
+            // swapped out in the meantime. Don't hold the old one
+            version.release();
+        }
+    }
+
+    public String getVersion() {
+        return active.get().version;
+    }
+
+    public long getLastRebuildTimeMillis() {
+        return lastRebuildTimeMillis;
+    }
+
+    // null if the last reload succeeded
+    public String getLastReloadError() {
+        return lastReloadError;
+    }
+
+    /**
+     * Rebuilds the KieBase from the DRL files and swaps it in. If the rules fail to compile, the current version is kept.
+     *
+     * @return true if a new version is in use
+     */
+    public synchronized boolean reload() {
+        long start = System.nanoTime();
+        Map<String, String> drlSources = readDrlSources();
+
+        String version = nextVersion();
+        ReleaseId releaseId = ks.newReleaseId(GROUP_ID, artifactId, version);
+        KieFileSystem kfs = ks.newKieFileSystem();
+        drlSources.forEach((fileName, drl) -> kfs.write("src/main/resources/" + DroolsUtils.EXAMPLE_PKG + fileName, drl));
+        kfs.generateAndWritePomXML(releaseId);
+        KieBuilder kieBuilder = ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
+        if (kieBuilder.getResults().hasMessages(Message.Level.ERROR)) {
+            ks.getRepository().removeKieModule(releaseId);
+            return reloadFailed(version, kieBuilder.getResults());
+        }
+
+        RuleBaseVersion next = standby;
+        if (next != null && next.kieContainer != null) {
+            // e.g. a lease which was never closed, or the calling thread holds one
+            if (!awaitDrained(next, drainTimeoutMillis)) {
+                ks.getRepository().removeKieModule(releaseId);
+                return reloadFailed(version, "version " + next.version + " is still used by " + next.inFlight.get()
+                                             + " evaluations after " + drainTimeoutMillis + " ms");
+            }
+            ReleaseId previousReleaseId = next.releaseId;
+            Results results = next.kieContainer.updateToVersion(releaseId);
+            if (results.hasMessages(Message.Level.ERROR)) {
+                ks.getRepository().removeKieModule(releaseId);
+                return reloadFailed(version, results);
+            }
+            ks.getRepository().removeKieModule(previousReleaseId);
+            next.update(version, releaseId, drlSources);
+        } else {
+            if (next != null) {
+                // the shared first version is replaced by a container owned by this class. Its pool is shut down
+                // when the evaluations still using it complete
+                next.retire();
+            }
+            KieContainer kieContainer = ks.newKieContainer(releaseId);
+            KieBase kieBase = kieContainer.getKieBase();
+            next = new RuleBaseVersion(kieContainer, kieBase, DroolsUtils.createSessionsPool(kieBase, sessionPoolSize),
+                                       version, releaseId, drlSources);
+        }
+
+        standby = active.getAndSet(next);
+        lastRebuildTimeMillis = (System.nanoTime() - start) / 1_000_000;
+        lastReloadError = null;
+        if (consoleLog) {
+            System.out.println("*** ReloadableKieBase.reload: version " + version + " in use. rebuild time = " + lastRebuildTimeMillis + " ms");
+        }
+        return true;
+    }
+
+    /**
+     * Starts a daemon thread which reloads the rules when one of the DRL files in the source directory changes.
+     */
+    public synchronized void startWatching() {
+        if (watcherThread != null) {
+            return;
+        }
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            sourceDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to watch DRL directory: " + sourceDirectory, e);
+        }
+        watcherThread = new Thread(this::watch, "drools-reload-" + artifactId);
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = containsDrlChange(key);
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                // editors often write a file in several steps. Wait for the burst to settle
+                WatchKey next;
+                while ((next = watchService.poll(200, TimeUnit.MILLISECONDS)) != null) {
+                    containsDrlChange(next);
+                    next.reset();
+                }
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    lastReloadError = e.toString();
+                    System.err.println("*** ReloadableKieBase.reload: failed. " + e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // stopped by close()
+        }
+    }
+
+    private boolean containsDrlChange(WatchKey key) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.context() instanceof Path path && fileNames.contains(path.getFileName().toString())) {
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Stops watching and releases the KieBases after the evaluations in progress complete. Waits for them up to
+     * the drain timeout. A version still in use then is released when its last lease is closed.
+     */
+    @Override
+    public void close() {
+        close(drainTimeoutMillis);
+    }
+
+    /**
+     * Same as close(), but doesn't wait for the evaluations in progress. The versions they use are released when
+     * their last lease is closed, so a leaked lease can't block the caller.
+     */
+    void closeWithoutWaiting() {
+        close(0);
+    }
+
+    private synchronized void close(long timeoutMillis) {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (watcherThread != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            watcherThread.interrupt();
+            watcherThread = null;
+        }
+        for (RuleBaseVersion version : standby != null ? List.of(standby, active.get()) : List.of(active.get())) {
+            if (!awaitDrained(version, timeoutMillis)) {
+                System.err.println("*** ReloadableKieBase.close: version " + version.version + " is still used by " + version.inFlight.get()
+                                           + " evaluations after " + timeoutMillis + " ms. It is released when they complete");
+            }
+            version.retire();
+        }
+        standby = null;
+    }
+
+    private boolean reloadFailed(String version, Results results) {
+        return reloadFailed(version, results.getMessages(Message.Level.ERROR).toString());
+    }
+
+    private boolean reloadFailed(String version, String error) {
+        lastReloadError = error;
+        System.err.println("*** ReloadableKieBase.reload: version " + version + " failed. "
+                                   + (active.get() != null ? "Keeping version " + getVersion() + ". " : "") + lastReloadError);
+        return false;
+    }
+
+    // false if the version is still in use after the drain timeout
+    private boolean awaitDrained(RuleBaseVersion version, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (version.inFlight.get() > 0) {
+            if (System.nanoTime() - deadline >= 0) {
+                return false;
+            }
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+        return true;
+    }
+
+    void setDrainTimeoutMillis(long drainTimeoutMillis) {
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    private String nextVersion() {
+        return "1.0." + versionCounter++;
+    }
+
+    private List<Path> paths() {
+        List<Path> paths = new ArrayList<>();
+        for (String fileName : fileNames) {
+            paths.add(sourceDirectory.resolve(fileName));
+        }
+        return paths;
+    }
+
+    private Map<String, String> readDrlSources() {
+        Map<String, String> drlSources = new LinkedHashMap<>();
+        for (Path path : paths()) {
+            try {
+                drlSources.put(path.getFileName().toString(), Files.readString(path));
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to read DRL file: " + path, e);
+            }
+        }
+        return drlSources;
+    }
+
+    /**
+     * A version of the rules held by an evaluation.
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final RuleBaseVersion ruleBase;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(RuleBaseVersion ruleBase) {
+            this.ruleBase = ruleBase;
+        }
+
+        // A pooled session is reset and returned to the pool on close(). Listeners, including the rule profiler, are removed then
+        public KieSession newKieSession() {
+            return newKieSession(true);
+        }
+
+        // profile false keeps the evaluations out of the rule profiler, e.g. the synthetic ones of the warm-up
+        KieSession newKieSession(boolean profile) {
+            KieSession kieSession = ruleBase.sessionsPool != null ? ruleBase.sessionsPool.newKieSession() : ruleBase.kieBase.newKieSession();
+            return profile ? DroolsUtils.attachRuleProfiler(kieSession) : kieSession;
+        }
+
+        public StatelessKieSession newStatelessKieSession() {
+            return newStatelessKieSession(true);
+        }
+
+        StatelessKieSession newStatelessKieSession(boolean profile) {
+            StatelessKieSession kieSession = ruleBase.sessionsPool != null ? ruleBase.sessionsPool.newStatelessKieSession() : ruleBase.kieBase.newStatelessKieSession();
+            return profile ? DroolsUtils.attachRuleProfiler(kieSession) : kieSession;
+        }
+
+        // A tracker of this version's RuleIndex. Attach it to a session and close it once the RuleResult is created
+        FiredRulesTracker borrowTracker() {
+            FiredRulesTracker tracker = ruleBase.trackers.poll();
+            return (tracker != null ? tracker : new FiredRulesTracker(ruleBase.trackers)).start(ruleBase.ruleIndex);
+        }
+
+        public KieBase getKieBase() {
+            return ruleBase.kieBase;
+        }
+
+        public String getVersion() {
+            return ruleBase.version;
+        }
+
+        public RuleIndex getRuleIndex() {
+            return ruleBase.ruleIndex;
+        }
+
+        public RuleSourceIndex getRuleSourceIndex() {
+            return ruleBase.ruleSourceIndex;
+        }
+
+        // true if the rules may insert a LoanDecision instead of modifying the LoanApplication
+        public boolean isDecisionFacts() {
+            return ruleBase.decisionFacts;
+        }
+
+        public String getDrlSource(String fileName) {
+            return ruleBase.drlSources.get(fileName);
+        }
+
+        public Set<String> getFileNames() {
+            return ruleBase.drlSources.keySet();
+        }
+
+        // idempotent, so a second close() doesn't release another evaluation's hold on the version
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                ruleBase.release();
+            }
+        }
+    }
+
+    private static final class RuleBaseVersion {
+
+        // the evaluations running at once are bounded by the cores, not by the (virtual) threads
+        private static final int TRACKER_POOL_SIZE = Runtime.getRuntime().availableProcessors() * 2;
+
+        // null when the KieBase is shared through KieBaseRegistry
+        private final KieContainer kieContainer;
+        private final KieBase kieBase;
+        private final KieSessionsPool sessionsPool;
+        private final ArrayBlockingQueue<FiredRulesTracker> trackers = new ArrayBlockingQueue<>(TRACKER_POOL_SIZE);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        // no longer used by ReloadableKieBase. Disposed as soon as no evaluation uses it
+        private volatile boolean retired;
+        private final AtomicBoolean disposed = new AtomicBoolean();
+
+        // updated in place when the container is updated to a new version
+        private volatile String version;
+        private volatile ReleaseId releaseId;
+        private volatile Map<String, String> drlSources;
+        private volatile RuleIndex ruleIndex;
+        private volatile RuleSourceIndex ruleSourceIndex;
+        private volatile boolean decisionFacts;
+
+        private RuleBaseVersion(KieContainer kieContainer, KieBase kieBase, KieSessionsPool sessionsPool,
+                                String version, ReleaseId releaseId, Map<String, String> drlSources) {
+            this.kieContainer = kieContainer;
+            this.kieBase = kieBase;
+            this.sessionsPool = sessionsPool;
+            update(version, releaseId, drlSources);
+        }
+
+        private void update(String version, ReleaseId releaseId, Map<String, String> drlSources) {
+            this.version = version;
+            this.releaseId = releaseId;
+            this.drlSources = drlSources;
+            this.ruleIndex = RuleIndex.of(kieBase);
+            this.ruleSourceIndex = RuleSourceIndex.of(drlSources);
+            // the consequences which create a LoanDecision, whatever import or qualified name they use
+            this.decisionFacts = ruleSourceIndex.createsInstancesOf(kieBase, LoanDecision.class);
+        }
+
+        private void release() {
+            if (inFlight.decrementAndGet() == 0 && retired) {
+                dispose();
+            }
+        }
+
+        private void retire() {
+            retired = true;
+            if (inFlight.get() == 0) {
+                dispose();
+            }
+        }
+
+        private void dispose() {
+            if (!disposed.compareAndSet(false, true)) {
+                return;
+            }
+            if (sessionsPool != null) {
+                sessionsPool.shutdown();
+            }
+            if (kieContainer != null) {
+                kieContainer.dispose();
+                KieServices.Factory.get().getRepository().removeKieModule(releaseId);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.kie.api.KieBase;
+import org.kie.api.definition.KiePackage;
+import org.kie.api.definition.rule.Rule;
+
+/**
+ * The rule names of a KieBase in a fixed order, so a fired rule can be recorded as an int.
+ * Built once per KieBase version.
+ */
+public final class RuleIndex {
+
+    // the @reason metadata of each rule, in its own words. null if the rule has none
+    public static final String REASON_METADATA = "reason";
+
+    private final String[] names;
+    private final String[] reasons;
+    private final Map<String, Integer> indexes = new HashMap<>();
+
+    private RuleIndex(List<Rule> rules) {
+        this.names = new String[rules.size()];
+        this.reasons = new String[rules.size()];
+        for (int i = 0; i < this.names.length; i++) {
+            // interned, so the names in RuleResults are shared with the KieBase
+            this.names[i] = rules.get(i).getName().intern();
+            this.reasons[i] = reasonOf(rules.get(i));
+            indexes.put(this.names[i], i);
+        }
+    }
+
+    public static RuleIndex of(KieBase kieBase) {
+        List<Rule> rules = new ArrayList<>();
+        for (KiePackage kiePackage : kieBase.getKiePackages()) {
+            rules.addAll(kiePackage.getRules());
+        }
+        rules.sort(Comparator.comparing(Rule::getName));
+        return new RuleIndex(rules);
+    }
+
+    private static String reasonOf(Rule rule) {
+        Object reason = rule.getMetaData().get(REASON_METADATA);
+        if (reason == null) {
+            return null;
+        }
+        // the executable model keeps the quotes of the DRL string
+        String text = reason.toString();
+        return text.length() >= 2 && text.startsWith("\"") && text.endsWith("\"") ? text.substring(1, text.length() - 1) : text;
+    }
+
+    // -1 if the rule is not in the KieBase
+    public int indexOf(String ruleName) {
+        // String caches its hash code, so the lookup doesn't allocate
+        Integer index = indexes.get(ruleName);
+        return index != null ? index : -1;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    // null if the rule has no @reason metadata
+    public String getReason(int index) {
+        return reasons[index];
+    }
+
+    public int size() {
+        return names.length;
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.kie.api.event.KieRuntimeEventManager;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.BeforeMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCancelledEvent;
+import org.kie.api.event.rule.MatchCreatedEvent;
+
+/**
+ * Counts matches created, cancelled and fired per rule and records the latency of each consequence in a histogram.
+ * <p>
+ * One instance can be attached to any number of KieSessions, also concurrently. Counters are striped
+ * and the latencies are recorded in a {@link LatencyHistogram}, so recording a firing takes a few atomic increments.
+ */
+public class RuleProfiler extends DefaultAgendaEventListener {
+
+    private final Map<String, RuleStats> stats = new ConcurrentHashMap<>();
+    // start of the consequence being fired on this thread
+    private final ThreadLocal<long[]> fireStart = ThreadLocal.withInitial(() -> new long[1]);
+
+    private ScheduledExecutorService dumpExecutor;
+
+    public void attach(KieRuntimeEventManager session) {
+        session.addEventListener(this);
+    }
+
+    @Override
+    public void matchCreated(MatchCreatedEvent event) {
+        statsOf(event.getMatch().getRule().getName()).created.increment();
+    }
+
+    @Override
+    public void matchCancelled(MatchCancelledEvent event) {
+        statsOf(event.getMatch().getRule().getName()).cancelled.increment();
+    }
+
+    @Override
+    public void beforeMatchFired(BeforeMatchFiredEvent event) {
+        fireStart.get()[0] = System.nanoTime();
+    }
+
+    @Override
+    public void afterMatchFired(AfterMatchFiredEvent event) {
+        long nanos = System.nanoTime() - fireStart.get()[0];
+        statsOf(event.getMatch().getRule().getName()).fired(nanos);
+    }
+
+    /**
+     * @return the profile of each rule which had a match, sorted by total consequence time, highest first
+     */
+    public List<RuleProfile> getProfiles() {
+        List<RuleProfile> profiles = new ArrayList<>();
+        stats.forEach((ruleName, ruleStats) -> profiles.add(ruleStats.toProfile(ruleName)));
+        profiles.sort(Comparator.comparingLong(RuleProfile::totalNanos).reversed());
+        return profiles;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder("RuleProfiler:");
+        sb.append(String.format("%n  %-24s %10s %10s %10s %12s %10s %10s %10s",
+                                "rule", "created", "cancelled", "fired", "total(us)", "p50(us)", "p99(us)", "max(us)"));
+        for (RuleProfile profile : getProfiles()) {
+            sb.append(String.format("%n  %-24s %10d %10d %10d %12.1f %10.1f %10.1f %10.1f",
+                                    profile.ruleName(), profile.created(), profile.cancelled(), profile.fired(),
+                                    profile.totalNanos() / 1000.0, profile.p50Nanos() / 1000.0,
+                                    profile.p99Nanos() / 1000.0, profile.maxNanos() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Prints the report to System.out every intervalSeconds on a daemon thread.
+     */
+    public synchronized void startPeriodicDump(long intervalSeconds) {
+        if (dumpExecutor != null) {
+            return;
+        }
+        dumpExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "drools-rule-profiler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        dumpExecutor.scheduleAtFixedRate(() -> System.out.println(report()), intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopPeriodicDump() {
+        if (dumpExecutor != null) {
+            dumpExecutor.shutdown();
+            dumpExecutor = null;
+        }
+    }
+
+    private RuleStats statsOf(String ruleName) {
+        RuleStats ruleStats = stats.get(ruleName);
+        return ruleStats != null ? ruleStats : stats.computeIfAbsent(ruleName, name -> new RuleStats());
+    }
+
+    private static final class RuleStats {
+
+        private final LongAdder created = new LongAdder();
+        private final LongAdder cancelled = new LongAdder();
+        private final LatencyHistogram fired = new LatencyHistogram();
+
+        private void fired(long nanos) {
+            fired.record(nanos);
+        }
+
+        private RuleProfile toProfile(String ruleName) {
+            return new RuleProfile(ruleName, created.sum(), cancelled.sum(), fired.getCount(), fired.getTotalNanos(),
+                                   fired.getMaxNanos(), fired.percentile(0.50), fired.percentile(0.99));
+        }
+    }
+
+    /**
+     * @param p50Nanos approximate. Upper bound of the power-of-2 histogram bucket
+     * @param p99Nanos approximate. Upper bound of the power-of-2 histogram bucket
+     */
+    public record RuleProfile(String ruleName, long created, long cancelled, long fired, long totalNanos, long maxNanos,
+                              long p50Nanos, long p99Nanos) {
+    }
+}
@@ -2,14 +2,29 @@ package org.example.langchain4j.drools;
 
 import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class RuleResult {
 
     private final boolean approved;
-    private final List<String> firedRules;
+
+    // when created by FiredRulesTracker, the names are resolved from the indexes on first access.
+    // A tool result is serialized to JSON for the LLM, so only approved and firedRules are sent
+    private List<String> firedRules;
+    private final transient RuleIndex ruleIndex;
+    private final transient int[] firedRuleIndexes;
 
     public RuleResult(boolean approved, List<String> firedRules) {
         this.approved = approved;
         this.firedRules = firedRules;
+        this.ruleIndex = null;
+        this.firedRuleIndexes = null;
+    }
+
+    RuleResult(boolean approved, RuleIndex ruleIndex, int[] firedRuleIndexes) {
+        this.approved = approved;
+        this.ruleIndex = ruleIndex;
+        this.firedRuleIndexes = firedRuleIndexes;
     }
 
     public boolean isApproved() {
@@ -17,14 +32,41 @@ public class RuleResult {
     }
 
     public List<String> getFiredRules() {
+        if (firedRules == null) {
+            // racy but idempotent. Every thread resolves the same names
+            String[] names = new String[firedRuleIndexes.length];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = ruleIndex.getName(firedRuleIndexes[i]);
+            }
+            firedRules = List.of(names);
+        }
         return firedRules;
     }
 
+    /**
+     * @return the @reason metadata of each fired rule, in firing order. Empty if a fired rule has none,
+     * or the result wasn't created from a KieBase, e.g. by executeRulesBatch
+     */
+    @JsonIgnore
+    public List<String> getReasons() {
+        if (ruleIndex == null || firedRuleIndexes.length == 0) {
+            return List.of();
+        }
+        String[] reasons = new String[firedRuleIndexes.length];
+        for (int i = 0; i < reasons.length; i++) {
+            reasons[i] = ruleIndex.getReason(firedRuleIndexes[i]);
+            if (reasons[i] == null) {
+                return List.of();
+            }
+        }
+        return List.of(reasons);
+    }
+
     @Override
     public String toString() {
         return "RuleResult{" +
                 "approved=" + approved +
-                ", firedRules=" + firedRules +
+                ", firedRules=" + getFiredRules() +
                 '}';
     }
 }
@@ -0,0 +1,286 @@
+package org.example.langchain4j.drools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Routes evaluations to the rule set of a loan product or tenant. A rule set is the file {@code <ruleSetId>.drl}
+ * in the rule set directory.
+ * <p>
+ * Rule sets are compiled on first use and kept until the registry runs out of its budget. The budget is the total
+ * number of rules of the loaded rule sets, which approximates their memory. Then the least recently used rule sets are
+ * unloaded. A rule set with more than maxRulesPerRuleSet rules is rejected, so one large tenant can't unload all
+ * the others. An unloaded rule set is released in the background once the evaluations still using it complete.
+ * <p>
+ * A rule set which is too large or fails to compile is remembered with the modification time of its file, and
+ * rejected without compiling it again until the file changes.
+ */
+public class RuleSetRegistry implements AutoCloseable {
+
+    // only names, so the id can't point outside the directory
+    private static final Pattern RULE_SET_ID = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]*");
+    private static final String DRL_EXTENSION = ".drl";
+
+    private final Path directory;
+    private final int sessionPoolSize;
+    private final int maxRules;
+    private final int maxRulesPerRuleSet;
+    private final boolean consoleLog = DroolsUtils.isConsoleLogEnabled();
+
+    // access order, least recently used first. Guarded by this
+    private final LinkedHashMap<String, LoadedRuleSet> loaded = new LinkedHashMap<>(16, 0.75f, true);
+    // rule sets being compiled. Other callers of the same rule set wait for it. Guarded by this
+    private final Map<String, CompletableFuture<Void>> loading = new HashMap<>();
+    // guarded by this
+    private int loadedRules;
+    // rule sets which were too large or failed to compile. Bounded by the number of DRL files in the directory
+    private final Map<String, Rejection> rejected = new ConcurrentHashMap<>();
+
+    // kept after unloading. Bounded by the number of DRL files in the directory
+    private final Map<String, TenantStats> stats = new ConcurrentHashMap<>();
+
+    private final ExecutorService unloader = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "drools-ruleset-unload");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RuleSetRegistry(Path directory, int sessionPoolSize, int maxRules, int maxRulesPerRuleSet) {
+        this.directory = directory;
+        this.sessionPoolSize = sessionPoolSize;
+        this.maxRules = maxRules;
+        this.maxRulesPerRuleSet = Math.min(maxRules, maxRulesPerRuleSet);
+    }
+
+    /**
+     * Returns the current version of the rule set, compiling it first if it isn't loaded.
+     * Close the lease when the evaluation completes, so the rule set can be released after it is unloaded.
+     *
+     * @throws IllegalArgumentException if the rule set doesn't exist or has more than maxRulesPerRuleSet rules
+     */
+    public ReloadableKieBase.Lease acquire(String ruleSetId) {
+        if (ruleSetId == null || !RULE_SET_ID.matcher(ruleSetId).matches() || !Files.isRegularFile(drlFile(ruleSetId))) {
+            throw new IllegalArgumentException("Unknown rule set: " + ruleSetId + ". Available rule sets: " + getRuleSetIds());
+        }
+        FileTime lastModified = lastModified(ruleSetId);
+        Rejection rejection = rejected.get(ruleSetId);
+        if (rejection != null && rejection.lastModified().equals(lastModified)) {
+            throw rejection.error();
+        }
+        while (true) {
+            CompletableFuture<Void> load;
+            boolean owner = false;
+            synchronized (this) {
+                LoadedRuleSet ruleSet = loaded.get(ruleSetId);
+                if (ruleSet != null) {
+                    // acquired under the lock, so it can't be unloaded in between
+                    return ruleSet.ruleBase.acquire();
+                }
+                load = loading.get(ruleSetId);
+                if (load == null) {
+                    load = new CompletableFuture<>();
+                    loading.put(ruleSetId, load);
+                    owner = true;
+                }
+            }
+            if (owner) {
+                load(ruleSetId, lastModified, load);
+            }
+            try {
+                load.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            // loaded. Unless it is unloaded again already, the next round acquires it
+        }
+    }
+
+    // compiles outside the lock, so evaluations of the loaded rule sets continue meanwhile
+    // lastModified is read before compiling, so a change of the file meanwhile isn't covered by a rejection
+    private void load(String ruleSetId, FileTime lastModified, CompletableFuture<Void> load) {
+        try {
+            long start = System.nanoTime();
+            ReloadableKieBase ruleBase = new ReloadableKieBase(directory, sessionPoolSize, false, ruleSetId + DRL_EXTENSION);
+            int rules;
+            try (var lease = ruleBase.acquire()) {
+                rules = lease.getRuleIndex().size();
+            }
+            if (rules > maxRulesPerRuleSet) {
+                unloader.execute(ruleBase::closeWithoutWaiting);
+                throw new IllegalArgumentException("Rule set " + ruleSetId + " has " + rules + " rules. The limit is " + maxRulesPerRuleSet);
+            }
+            if (ReloadableKieBase.isReloadEnabled()) {
+                ruleBase.startWatching();
+            }
+            List<String> unloaded = new ArrayList<>();
+            synchronized (this) {
+                Iterator<Map.Entry<String, LoadedRuleSet>> eldest = loaded.entrySet().iterator();
+                while (loadedRules + rules > maxRules && eldest.hasNext()) {
+                    Map.Entry<String, LoadedRuleSet> entry = eldest.next();
+                    eldest.remove();
+                    loadedRules -= entry.getValue().rules;
+                    statsOf(entry.getKey()).unloads.increment();
+                    unloaded.add(entry.getKey());
+                    // doesn't wait, so a leaked lease can't hold up the other unloads
+                    unloader.execute(entry.getValue().ruleBase::closeWithoutWaiting);
+                }
+                loaded.put(ruleSetId, new LoadedRuleSet(ruleBase, rules));
+                loadedRules += rules;
+                loading.remove(ruleSetId);
+            }
+            rejected.remove(ruleSetId);
+            statsOf(ruleSetId).loads.increment();
+            if (consoleLog) {
+                System.out.println("*** RuleSetRegistry.load: " + ruleSetId + " (" + rules + " rules) loaded in "
+                                           + (System.nanoTime() - start) / 1_000_000 + " ms. unloaded = " + unloaded);
+            }
+            load.complete(null);
+        } catch (RuntimeException e) {
+            if (lastModified != null) {
+                rejected.put(ruleSetId, new Rejection(lastModified, e));
+            }
+            synchronized (this) {
+                loading.remove(ruleSetId);
+            }
+            load.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Records the latency of an evaluation of the rule set, measured by the caller.
+     */
+    public void recordEvaluation(String ruleSetId, long latencyNanos) {
+        statsOf(ruleSetId).latency.record(latencyNanos);
+    }
+
+    // ids of the DRL files in the directory
+    public List<String> getRuleSetIds() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(fileName -> fileName.endsWith(DRL_EXTENSION))
+                    .map(fileName -> fileName.substring(0, fileName.length() - DRL_EXTENSION.length()))
+                    .sorted()
+                    .toList();
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to list rule sets in " + directory, e);
+        }
+    }
+
+    // ids of the loaded rule sets, least recently used first
+    public synchronized List<String> getLoadedRuleSetIds() {
+        return new ArrayList<>(loaded.keySet());
+    }
+
+    public synchronized int getLoadedRules() {
+        return loadedRules;
+    }
+
+    /**
+     * @return the metrics of each rule set which has been loaded or evaluated, sorted by total evaluation time, highest first
+     */
+    public List<TenantMetrics> getMetrics() {
+        Map<String, Integer> rules = new HashMap<>();
+        synchronized (this) {
+            loaded.forEach((ruleSetId, ruleSet) -> rules.put(ruleSetId, ruleSet.rules));
+        }
+        List<TenantMetrics> metrics = new ArrayList<>();
+        stats.forEach((ruleSetId, tenantStats) -> metrics.add(tenantStats.toMetrics(ruleSetId, rules.getOrDefault(ruleSetId, 0))));
+        metrics.sort(Comparator.comparingLong(TenantMetrics::totalNanos).reversed());
+        return metrics;
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder(String.format("RuleSetRegistry: %d of %d rules loaded", getLoadedRules(), maxRules));
+        sb.append(String.format("%n  %-24s %6s %6s %8s %10s %12s %10s %10s %10s",
+                                "rule set", "rules", "loads", "unloads", "evals", "total(us)", "p50(us)", "p99(us)", "max(us)"));
+        for (TenantMetrics tenant : getMetrics()) {
+            sb.append(String.format("%n  %-24s %6d %6d %8d %10d %12.1f %10.1f %10.1f %10.1f",
+                                    tenant.ruleSetId(), tenant.loadedRules(), tenant.loads(), tenant.unloads(), tenant.evaluations(),
+                                    tenant.totalNanos() / 1000.0, tenant.p50Nanos() / 1000.0,
+                                    tenant.p99Nanos() / 1000.0, tenant.maxNanos() / 1000.0));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Unloads all the rule sets and waits until the ones no longer used are released. The others are released
+     * when their last lease is closed.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            loaded.values().forEach(ruleSet -> unloader.execute(ruleSet.ruleBase::closeWithoutWaiting));
+            loaded.clear();
+            loadedRules = 0;
+        }
+        unloader.shutdown();
+        try {
+            unloader.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Path drlFile(String ruleSetId) {
+        return directory.resolve(ruleSetId + DRL_EXTENSION);
+    }
+
+    // null if it can't be read, so the rule set isn't remembered as rejected
+    private FileTime lastModified(String ruleSetId) {
+        try {
+            return Files.getLastModifiedTime(drlFile(ruleSetId));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private TenantStats statsOf(String ruleSetId) {
+        TenantStats tenantStats = stats.get(ruleSetId);
+        return tenantStats != null ? tenantStats : stats.computeIfAbsent(ruleSetId, id -> new TenantStats());
+    }
+
+    private record LoadedRuleSet(ReloadableKieBase ruleBase, int rules) {
+    }
+
+    private record Rejection(FileTime lastModified, RuntimeException error) {
+    }
+
+    private static final class TenantStats {
+
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder unloads = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private TenantMetrics toMetrics(String ruleSetId, int loadedRules) {
+            return new TenantMetrics(ruleSetId, loadedRules, loads.sum(), unloads.sum(), latency.getCount(),
+                                     latency.getTotalNanos(), latency.getMaxNanos(), latency.percentile(0.50), latency.percentile(0.99));
+        }
+    }
+
+    /**
+     * @param loadedRules 0 when the rule set isn't loaded
+     * @param p50Nanos    approximate. Upper bound of the power-of-2 histogram bucket
+     * @param p99Nanos    approximate. Upper bound of the power-of-2 histogram bucket
+     */
+    public record TenantMetrics(String ruleSetId, int loadedRules, long loads, long unloads, long evaluations,
+                                long totalNanos, long maxNanos, long p50Nanos, long p99Nanos) {
+    }
+}
@@ -0,0 +1,153 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.drools.core.impl.InternalRuleBase;
+import org.drools.drl.ast.descr.ImportDescr;
+import org.drools.drl.ast.descr.PackageDescr;
+import org.drools.drl.ast.descr.RuleDescr;
+import org.drools.drl.parser.DrlParser;
+import org.drools.drl.parser.DroolsParserException;
+import org.kie.api.KieBase;
+
+/**
+ * The DRL source of each rule, so an explanation can include only the rules which fired instead of whole files.
+ * Built once per KieBase version from the DRL files it was compiled from.
+ */
+public final class RuleSourceIndex {
+
+    // "new LoanDecision(" or "new org.example.LoanDecision("
+    private static final Pattern NEW_INSTANCE = Pattern.compile("\\bnew\\s+([A-Za-z_$][\\w$]*(?:\\s*\\.\\s*[A-Za-z_$][\\w$]*)*)\\s*\\(");
+    private static final Pattern COMMENT = Pattern.compile("//[^\\n]*|/\\*.*?\\*/", Pattern.DOTALL);
+
+    private final Map<String, String> sources;
+    // the types the consequences create instances of, as named in the DRL
+    private final List<CreatedType> createdTypes;
+
+    private RuleSourceIndex(Map<String, String> sources, List<CreatedType> createdTypes) {
+        this.sources = sources;
+        this.createdTypes = createdTypes;
+    }
+
+    /**
+     * @param drlSources DRL contents by file name. The files must compile, so they are parsed without errors
+     */
+    public static RuleSourceIndex of(Map<String, String> drlSources) {
+        Map<String, String> sources = new HashMap<>();
+        List<CreatedType> createdTypes = new ArrayList<>();
+        drlSources.forEach((fileName, drl) -> {
+            PackageDescr packageDescr;
+            try {
+                packageDescr = new DrlParser().parse(false, drl);
+            } catch (DroolsParserException e) {
+                throw new RuntimeException("Failed to parse DRL file: " + fileName, e);
+            }
+            List<String> imports = packageDescr.getImports().stream().map(ImportDescr::getTarget).toList();
+            for (RuleDescr rule : packageDescr.getRules()) {
+                // from "rule" to "end", both included
+                sources.put(rule.getName(), drl.substring(rule.getStartCharacter(), rule.getEndCharacter()).strip());
+                if (rule.getConsequence() != null) {
+                    Matcher matcher = NEW_INSTANCE.matcher(COMMENT.matcher(rule.getConsequence().toString()).replaceAll(""));
+                    while (matcher.find()) {
+                        createdTypes.add(new CreatedType(packageDescr.getName(), imports, matcher.group(1).replaceAll("\\s", "")));
+                    }
+                }
+            }
+        });
+        return new RuleSourceIndex(sources, createdTypes);
+    }
+
+    /**
+     * True if a rule consequence creates an instance of the type, e.g. {@code insert(new LoanDecision($l, true))}.
+     * The names are resolved as the compiler does, with the imports of the DRL file and the class loader of the
+     * KieBase, so a wildcard import or a fully qualified name counts too, while an import alone doesn't.
+     *
+     * @param kieBase the KieBase compiled from the DRL files of this index
+     */
+    public boolean createsInstancesOf(KieBase kieBase, Class<?> type) {
+        ClassLoader classLoader = ((InternalRuleBase) kieBase).getRootClassLoader();
+        for (CreatedType createdType : createdTypes) {
+            if (type.getName().equals(createdType.resolve(kieBase, classLoader))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // null if the rule is not in the KieBase
+    public String getSource(String ruleName) {
+        return sources.get(ruleName);
+    }
+
+    /**
+     * @return the sources of the given rules separated by blank lines, in the given order. Unknown rules are named in
+     * a DRL comment at the end, so the caller can tell a misspelled name from a rule without source
+     */
+    public String getSources(Collection<String> ruleNames) {
+        StringBuilder sb = new StringBuilder();
+        List<String> unknown = new ArrayList<>();
+        for (String ruleName : ruleNames) {
+            String source = sources.get(ruleName);
+            if (source == null) {
+                unknown.add(ruleName);
+                continue;
+            }
+            if (!sb.isEmpty()) {
+                sb.append("\n\n");
+            }
+            sb.append(source);
+        }
+        if (!unknown.isEmpty()) {
+            if (!sb.isEmpty()) {
+                sb.append("\n\n");
+            }
+            sb.append("// unknown rules: ").append(String.join(", ", unknown));
+        }
+        return sb.toString();
+    }
+
+    public int size() {
+        return sources.size();
+    }
+
+    private record CreatedType(String packageName, List<String> imports, String typeName) {
+
+        // the class name, or null for a type declared in the DRL or not found
+        String resolve(KieBase kieBase, ClassLoader classLoader) {
+            if (typeName.contains(".")) {
+                return exists(typeName, classLoader) ? typeName : null;
+            }
+            if (kieBase.getFactType(packageName, typeName) != null) {
+                return null;
+            }
+            // a single-type import wins over the package and the wildcard imports
+            List<String> candidates = new ArrayList<>();
+            for (String target : imports) {
+                if (target.endsWith("." + typeName)) {
+                    return target;
+                }
+                if (target.endsWith(".*")) {
+                    candidates.add(target.substring(0, target.length() - 1) + typeName);
+                }
+            }
+            candidates.add(0, packageName + "." + typeName);
+            candidates.add("java.lang." + typeName);
+            return candidates.stream().filter(name -> exists(name, classLoader)).findFirst().orElse(null);
+        }
+
+        private static boolean exists(String className, ClassLoader classLoader) {
+            try {
+                Class.forName(className, false, classLoader);
+                return true;
+            } catch (ClassNotFoundException e) {
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.langchain4j.drools;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import dev.langchain4j.agentic.Agent;
+import dev.langchain4j.service.V;
+import org.example.langchain4j.drools.domain.LoanApplication;
+
+/**
+ * Evaluates the extracted loan application and writes the response from a template, instead of a summary LLM call.
+ * NonAI agent.
+ * <p>
+ * The template restates the decision with the @reason metadata of the fired rules. It only answers plain evaluation
+ * requests, e.g. "John, 45, $8000". A question, e.g. "why, and what amount would be approved?", or a request which
+ * doesn't state the extracted amount is handed off to the LLM agent, as is a decision which isn't definitive,
+ * i.e. no rule fired or a fired rule has no reason.
+ */
+public class TemplateResponseAgent {
+
+    // a question or a hypothetical, which the template doesn't answer
+    private static final Pattern QUESTION = Pattern.compile(
+            "\\?|\\b(?:why|what|how|which|when|whether|would|could|can|should|explain|if)\\b", Pattern.CASE_INSENSITIVE);
+    // a whole number, e.g. "8000" or "$8000", after the thousands separators are removed
+    private static final Pattern NUMBER = Pattern.compile("(\\$\\s*)?\\b(\\d+)\\b");
+    private static final Pattern THOUSANDS_SEPARATOR = Pattern.compile("(?<=\\d),(?=\\d{3}\\b)");
+    // e.g. "8k" and "8 thousand"
+    private static final Pattern THOUSANDS = Pattern.compile("\\b(\\d+)\\s*(?:k|thousand)\\b", Pattern.CASE_INSENSITIVE);
+
+    private final AdvancedDroolsAgent fallback;
+    private final DroolsExecutorTool droolsExecutorTool;
+
+    private final AtomicLong templated = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    public TemplateResponseAgent(AdvancedDroolsAgent fallback) {
+        this(fallback, DroolsExecutorTool.getInstance());
+    }
+
+    TemplateResponseAgent(AdvancedDroolsAgent fallback, DroolsExecutorTool droolsExecutorTool) {
+        this.fallback = fallback;
+        this.droolsExecutorTool = droolsExecutorTool;
+    }
+
+    @Agent(description = "Evaluate a loan application and write the response to the user.", outputKey = "summary")
+    public String respond(@V("request") String request, @V("loanApplication") LoanApplication loanApplication) {
+        if (isPlainEvaluation(request, loanApplication)) {
+            String response = render(loanApplication, droolsExecutorTool.executeRules(loanApplication));
+            if (response != null) {
+                templated.incrementAndGet();
+                return response;
+            }
+        }
+        fallbacks.incrementAndGet();
+        return fallback.evaluate(request);
+    }
+
+    /**
+     * @return true if the request only asks to evaluate the application, and states its amount. There is no fast-path
+     * parser in this module, so this guards against an extracted amount of 0 or one the user didn't ask for
+     */
+    static boolean isPlainEvaluation(String request, LoanApplication loanApplication) {
+        if (request == null || loanApplication == null || loanApplication.getApplicant() == null
+                || loanApplication.getAmount() <= 0 || QUESTION.matcher(request).find()) {
+            return false;
+        }
+        String amount = String.valueOf(loanApplication.getAmount());
+        // a number equal to the age may be the age, unless it's written as dollars or stated twice
+        boolean sameAsAge = loanApplication.getAmount() == loanApplication.getApplicant().age();
+        int occurrences = 0;
+        Matcher number = NUMBER.matcher(THOUSANDS_SEPARATOR.matcher(request).replaceAll(""));
+        while (number.find()) {
+            if (number.group(2).equals(amount)) {
+                if (number.group(1) != null || !sameAsAge || ++occurrences > 1) {
+                    return true;
+                }
+            }
+        }
+        if (loanApplication.getAmount() % 1000 != 0) {
+            return false;
+        }
+        String thousands = String.valueOf(loanApplication.getAmount() / 1000);
+        Matcher matcher = THOUSANDS.matcher(request);
+        while (matcher.find()) {
+            if (matcher.group(1).equals(thousands)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return e.g. "John, your loan application for $8000 is rejected because the amount is higher than $5000
+     * (rules: HighAmount).", or null if the decision isn't definitive
+     */
+    static String render(LoanApplication loanApplication, RuleResult result) {
+        if (result.getReasons().isEmpty()) {
+            return null;
+        }
+        return String.format("%s, your loan application for $%d is %s because %s (rules: %s).",
+                             loanApplication.getApplicant().name(), loanApplication.getAmount(),
+                             result.isApproved() ? "approved" : "rejected",
+                             String.join(" and ", result.getReasons()), String.join(", ", result.getFiredRules()));
+    }
+
+    public long getTemplated() {
+        return templated.get();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    public String report() {
+        return String.format("TemplateResponseAgent{templated=%d, fallbacks=%d}", getTemplated(), getFallbacks());
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.langchain4j.drools.domain;
+
+/**
+ * The decision on a loan application, inserted by the rules instead of modifying the application.
+ */
+public record LoanDecision(
+        LoanApplication loanApplication,
+        boolean approved
+) {
+
+}
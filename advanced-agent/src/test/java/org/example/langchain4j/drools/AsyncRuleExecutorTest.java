@@ -0,0 +1,87 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncRuleExecutorTest {
+
+    @Test
+    void concurrencyIsLimitedAndFullQueueIsRejected() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+
+        try (AsyncRuleExecutor executor = new AsyncRuleExecutor(2, 3)) {
+            System.out.println("virtual threads: " + executor.isVirtualThreads());
+
+            List<CompletableFuture<Integer>> accepted = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                int n = i;
+                accepted.add(executor.submit(() -> {
+                    maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                    await(release);
+                    concurrent.decrementAndGet();
+                    return n;
+                }));
+            }
+            CompletableFuture<Integer> overflow = executor.submit(() -> -1);
+
+            assertThatThrownBy(overflow::join).isInstanceOf(CompletionException.class)
+                    .hasCauseInstanceOf(RejectedExecutionException.class);
+            assertThat(executor.getRejected()).isEqualTo(1);
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (executor.getRunning() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(executor.getRunning()).isEqualTo(2);
+            assertThat(executor.getQueued()).isEqualTo(3);
+
+            release.countDown();
+            for (int i = 0; i < accepted.size(); i++) {
+                assertThat(accepted.get(i).get(10, TimeUnit.SECONDS)).isEqualTo(i);
+            }
+            assertThat(maxConcurrent.get()).isEqualTo(2);
+
+            // slots are available again
+            assertThat(executor.submit(() -> 42).get(10, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+    }
+
+    @Test
+    void executeRulesAsync() {
+        DroolsExecutorTool tool = new DroolsExecutorTool(4);
+
+        List<CompletableFuture<RuleResult>> futures = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            futures.add(tool.executeRulesAsync(new LoanApplication(new Person("John", 45), i % 2 == 0 ? 3000 : 8000)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            RuleResult result = futures.get(i).join();
+            assertThat(result.isApproved()).isEqualTo(i % 2 == 0);
+            assertThat(result.getFiredRules()).containsExactly(i % 2 == 0 ? "ApprovableAmount" : "HighAmount");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package org.example.langchain4j.drools;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionCacheTest {
+
+    @Test
+    void toolReturnsCachedDecisionForSameAgeAndAmount() {
+        DroolsExecutorTool tool = new DroolsExecutorTool(0, 0, 100);
+
+        RuleResult first = tool.executeRules(new LoanApplication(new Person("John", 45), 3000));
+        LoanApplication sameInputs = new LoanApplication(new Person("Jane", 45), 3000);
+        RuleResult second = tool.executeRules(sameInputs);
+
+        assertThat(second).isSameAs(first);
+        assertThat(sameInputs.isApproved()).isTrue();
+        assertThat(second.getFiredRules()).containsExactly("ApprovableAmount");
+        assertThat(tool.executeRules(new LoanApplication(new Person("John", 45), 8000)).isApproved()).isFalse();
+
+        assertThat(tool.getDecisionCache().getHits()).isEqualTo(1);
+        assertThat(tool.getDecisionCache().getMisses()).isEqualTo(2);
+        System.out.println(tool.getDecisionCache().report());
+    }
+
+    @Test
+    void warmUpIsNotCounted() throws Exception {
+        DroolsExecutorTool tool = new DroolsExecutorTool(0, 3, 100);
+        tool.awaitReady();
+
+        assertThat(tool.getDecisionCache().getMisses()).isZero();
+        assertThat(tool.getDecisionCache().size()).isZero();
+        assertThat(tool.getRuleSets().getMetrics()).allSatisfy(metrics -> assertThat(metrics.evaluations()).isZero());
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+import org.kie.api.event.rule.MatchCancelledEvent;
+import org.kie.api.event.rule.MatchCreatedEvent;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares rules which modify the LoanApplication with rules which insert a LoanDecision, on a rule set of
+ * {@value #TIERS} amount tiers. Doesn't require LLM.
+ */
+class DecisionFactBenchmarkTest {
+
+    private static final int TIERS = 500;
+    private static final int EVALUATIONS = 20_000;
+
+    @TempDir
+    Path drlDirectory;
+
+    @Test
+    void toolReadsDecisionWithoutModifyingApplication() {
+        DroolsExecutorTool tool = new DroolsExecutorTool(0, 0, 100, true);
+
+        for (int i = 0; i < 2; i++) {
+            // the second round is served from the decision cache
+            LoanApplication approvable = new LoanApplication(new Person("John", 45), 3000);
+            RuleResult result = tool.executeRules(approvable);
+            assertThat(result.isApproved()).isTrue();
+            assertThat(result.getFiredRules()).containsExactly("ApprovableAmount");
+            assertThat(approvable.isApproved()).isFalse();
+        }
+
+        List<LoanApplication> batch = List.of(new LoanApplication(new Person("John", 45), 3000),
+                                              new LoanApplication(new Person("Jane", 16), 3000));
+        assertThat(tool.executeRulesBatch(batch)).extracting(RuleResult::isApproved).containsExactly(true, false);
+        assertThat(batch).extracting(LoanApplication::isApproved).containsOnly(false);
+        assertThat(tool.getLoanApplicationDrlRules()).contains("insert(new LoanDecision($l, true));");
+    }
+
+    @Test
+    void decisionIsDetectedWithoutImport() throws Exception {
+        // a wildcard import and a fully qualified name, so the DRL never imports LoanDecision by name
+        Files.writeString(drlDirectory.resolve("qualified.drl"), """
+                package org.example;
+
+                import org.example.langchain4j.drools.domain.*;
+
+                rule Approve
+                when
+                    $l: LoanApplication( amount <= 5000 )
+                then
+                    insert(new org.example.langchain4j.drools.domain.LoanDecision($l, true));
+                end
+                """);
+
+        try (ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 0, false, "qualified.drl")) {
+            try (var lease = ruleBase.acquire()) {
+                assertThat(lease.isDecisionFacts()).isTrue();
+            }
+            RuleResult result = evaluate(ruleBase, 3000, null);
+            assertThat(result.isApproved()).isTrue();
+            assertThat(result.getFiredRules()).containsExactly("Approve");
+        }
+    }
+
+    @Test
+    void decisionIsDetectedWithWildcardImport() throws Exception {
+        Files.writeString(drlDirectory.resolve("wildcard.drl"), """
+                package org.example;
+
+                import org.example.langchain4j.drools.domain.*;
+
+                rule Approve
+                when
+                    $l: LoanApplication( amount <= 5000 )
+                then
+                    insert(new LoanDecision($l, true));
+                end
+                """);
+
+        try (ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 0, false, "wildcard.drl");
+             var lease = ruleBase.acquire()) {
+            assertThat(lease.isDecisionFacts()).isTrue();
+        }
+    }
+
+    @Test
+    void importAloneIsNotADecision() throws Exception {
+        // imports LoanDecision but approves through the application
+        Files.writeString(drlDirectory.resolve("imported.drl"), """
+                package org.example;
+
+                import org.example.langchain4j.drools.domain.LoanApplication;
+                import org.example.langchain4j.drools.domain.LoanDecision;
+
+                rule Approve
+                when
+                    $l: LoanApplication( amount <= 5000 )
+                then
+                    // no new LoanDecision(...) here
+                    modify($l) { setApproved(true) };
+                end
+                """);
+
+        try (ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 0, false, "imported.drl")) {
+            try (var lease = ruleBase.acquire()) {
+                assertThat(lease.isDecisionFacts()).isFalse();
+            }
+            RuleResult result = evaluate(ruleBase, 3000, null);
+            assertThat(result.isApproved()).isTrue();
+            assertThat(result.getFiredRules()).containsExactly("Approve");
+        }
+    }
+
+    @Test
+    void compareModifyAndDecisionFact() throws Exception {
+        // the usual guard on approved, so a modified application isn't decided again
+        Path modifyDrl = writeTiers("modify.drl", "approved == false, ", "modify($l) { setApproved(true) };", "");
+        // nothing watches the application, so inserting the decision doesn't re-evaluate any pattern
+        Path decisionDrl = writeTiers("decision.drl", "", "insert(new LoanDecision($l, true));", " @watch( !* )");
+
+        try (ReloadableKieBase modify = new ReloadableKieBase(drlDirectory, 1, false, modifyDrl.getFileName().toString());
+             ReloadableKieBase decision = new ReloadableKieBase(drlDirectory, 1, false, decisionDrl.getFileName().toString())) {
+            // warm-up and same results
+            for (int i = 0; i < EVALUATIONS; i++) {
+                int amount = amount(i);
+                assertThat(evaluate(decision, amount, null).isApproved()).isEqualTo(evaluate(modify, amount, null).isApproved());
+            }
+
+            MatchCounter modifyMatches = new MatchCounter();
+            long modifyNanos = measure(modify, modifyMatches);
+            MatchCounter decisionMatches = new MatchCounter();
+            long decisionNanos = measure(decision, decisionMatches);
+
+            System.out.println(String.format("%d tiers, %d evaluations: modify=%d ms (matches created=%d cancelled=%d)  decision fact=%d ms (matches created=%d cancelled=%d)",
+                                             TIERS, EVALUATIONS, modifyNanos / 1_000_000, modifyMatches.created.get(), modifyMatches.cancelled.get(),
+                                             decisionNanos / 1_000_000, decisionMatches.created.get(), decisionMatches.cancelled.get()));
+            // the same agenda work. The difference is the modify, which re-evaluates the tier patterns watching approved
+            assertThat(decisionMatches.created.get()).isEqualTo(modifyMatches.created.get()).isEqualTo(EVALUATIONS);
+            assertThat(decisionMatches.cancelled.get()).isZero();
+        }
+    }
+
+    private static long measure(ReloadableKieBase ruleBase, MatchCounter counter) {
+        long start = System.nanoTime();
+        for (int i = 0; i < EVALUATIONS; i++) {
+            evaluate(ruleBase, amount(i), counter);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static RuleResult evaluate(ReloadableKieBase ruleBase, int amount, MatchCounter counter) {
+        LoanApplication loanApplication = new LoanApplication(new Person("John", 45), amount);
+        try (var lease = ruleBase.acquire(); var tracker = lease.borrowTracker(); var kieSession = lease.newKieSession()) {
+            tracker.attach(kieSession, lease.isDecisionFacts());
+            if (counter != null) {
+                kieSession.addEventListener(counter);
+            }
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+            return tracker.toRuleResult(loanApplication.isApproved());
+        }
+    }
+
+    // spread over all tiers
+    private static int amount(int i) {
+        return 1 + (i * 37) % (TIERS * 100);
+    }
+
+    // tier i approves amounts in (i * 100, (i + 1) * 100]
+    private Path writeTiers(String fileName, String guard, String consequence, String watch) throws Exception {
+        StringBuilder drl = new StringBuilder("""
+                package org.example;
+
+                import org.example.langchain4j.drools.domain.LoanApplication;
+                import org.example.langchain4j.drools.domain.LoanDecision;
+                """);
+        for (int i = 0; i < TIERS; i++) {
+            drl.append(String.format("""
+
+                    rule Tier%03d
+                    when
+                        $l: LoanApplication( %samount > %d, amount <= %d )%s
+                    then
+                        %s
+                    end
+                    """, i, guard, i * 100, (i + 1) * 100, watch, consequence));
+        }
+        return Files.writeString(drlDirectory.resolve(fileName), drl);
+    }
+
+    private static final class MatchCounter extends DefaultAgendaEventListener {
+
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+
+        @Override
+        public void matchCreated(MatchCreatedEvent event) {
+            created.incrementAndGet();
+        }
+
+        @Override
+        public void matchCancelled(MatchCancelledEvent event) {
+            cancelled.incrementAndGet();
+        }
+    }
+}
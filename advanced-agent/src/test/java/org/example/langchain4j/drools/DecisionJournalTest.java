@@ -0,0 +1,114 @@
+package org.example.langchain4j.drools;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionJournalTest {
+
+    private static final int THREADS = 8;
+    private static final int EVALUATIONS_PER_THREAD = 20_000;
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void toolRecordsDecisionsInsteadOfPrinting() throws Exception {
+        System.setProperty(DroolsUtils.JOURNAL_DIR_PROPERTY, journalDirectory.toString());
+        DroolsExecutorTool tool;
+        try {
+            tool = new DroolsExecutorTool(0);
+        } finally {
+            System.clearProperty(DroolsUtils.JOURNAL_DIR_PROPERTY);
+        }
+
+        tool.executeRules(new LoanApplication(new Person("Jane", 16), 3000));
+        tool.getJournal().close();
+
+        assertThat(readLines()).singleElement().satisfies(line -> assertThat(line)
+                .contains("\"applicant\":\"Jane\"", "\"age\":16", "\"amount\":3000", "\"approved\":false",
+                          "\"firedRules\":[\"NotAdult\"]", "\"kieBaseVersion\":\"1.0.0\""));
+    }
+
+    @Test
+    void compareSystemOutAndJournal() throws Exception {
+        PrintStream originalOut = System.out;
+        // a PrintStream is synchronized even when the output is discarded
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setProperty(DroolsUtils.CONSOLE_LOG_PROPERTY, "true");
+        double printed;
+        try {
+            printed = evaluationsPerSecond(new DroolsExecutorTool(0));
+        } finally {
+            System.clearProperty(DroolsUtils.CONSOLE_LOG_PROPERTY);
+            System.setOut(originalOut);
+        }
+
+        System.setProperty(DroolsUtils.JOURNAL_DIR_PROPERTY, journalDirectory.toString());
+        DroolsExecutorTool journaledTool;
+        try {
+            journaledTool = new DroolsExecutorTool(0);
+        } finally {
+            System.clearProperty(DroolsUtils.JOURNAL_DIR_PROPERTY);
+        }
+        double journaled = evaluationsPerSecond(journaledTool);
+        journaledTool.getJournal().close();
+
+        System.out.println(String.format("threads=%d  System.out=%,10.0f ops/s  journal=%,10.0f ops/s  written=%d dropped=%d",
+                                         THREADS, printed, journaled,
+                                         journaledTool.getJournal().getWritten(), journaledTool.getJournal().getDropped()));
+        assertThat(journaledTool.getJournal().getWritten() + journaledTool.getJournal().getDropped())
+                .isEqualTo(2L * THREADS * EVALUATIONS_PER_THREAD);
+    }
+
+    // warm-up round and measured round
+    private static double evaluationsPerSecond(DroolsExecutorTool tool) throws Exception {
+        runThreads(tool);
+        long start = System.nanoTime();
+        runThreads(tool);
+        return (double) THREADS * EVALUATIONS_PER_THREAD / ((System.nanoTime() - start) / 1_000_000_000.0);
+    }
+
+    private static void runThreads(DroolsExecutorTool tool) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < EVALUATIONS_PER_THREAD; i++) {
+                        tool.executeRules(new LoanApplication(new Person("John", 45), 3000));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<String> readLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            for (Path file : files.sorted().toList()) {
+                lines.addAll(Files.readAllLines(file));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,125 @@
+package org.example.langchain4j.drools;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.kie.api.event.rule.AfterMatchFiredEvent;
+import org.kie.api.event.rule.DefaultAgendaEventListener;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the bytes allocated per evaluation by fired rule tracking, with a pooled KieSession so the session itself
+ * isn't part of the measurement. Doesn't require LLM.
+ */
+class FiredRulesAllocationBenchmarkTest {
+
+    private static final int EVALUATIONS = 100_000;
+    private static final int WARM_UP_EVALUATIONS = 50_000;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Test
+    void trackerFiresSameRulesAsListener() {
+        try (ReloadableKieBase ruleBase = newRuleBase()) {
+            for (int age : new int[]{15, 45}) {
+                for (int amount : new int[]{3000, 8000}) {
+                    assertThat(withTracker(ruleBase, new LoanApplication(new Person("John", age), amount)).getFiredRules())
+                            .isEqualTo(withListener(ruleBase, new LoanApplication(new Person("John", age), amount)).getFiredRules());
+                }
+            }
+        }
+    }
+
+    @Test
+    void compareAllocationPerEvaluation() {
+        try (ReloadableKieBase ruleBase = newRuleBase()) {
+            double untracked = bytesPerEvaluation(ruleBase, FiredRulesAllocationBenchmarkTest::untracked);
+            double listener = bytesPerEvaluation(ruleBase, FiredRulesAllocationBenchmarkTest::withListener);
+            double tracker = bytesPerEvaluation(ruleBase, FiredRulesAllocationBenchmarkTest::withTracker);
+
+            System.out.println(String.format("allocated bytes per evaluation: untracked=%.1f  new listener and ArrayList=%.1f (+%.1f)  FiredRulesTracker=%.1f (+%.1f)",
+                                             untracked, listener, listener - untracked, tracker, tracker - untracked));
+            assertThat(tracker).isLessThan(listener);
+        }
+    }
+
+    private static ReloadableKieBase newRuleBase() {
+        return new ReloadableKieBase(DroolsUtils.getDrlDirectory(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME), 1,
+                                     DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME);
+    }
+
+    private static double bytesPerEvaluation(ReloadableKieBase ruleBase, Evaluation evaluation) {
+        // same application every time, so only the evaluation allocates
+        LoanApplication loanApplication = new LoanApplication(new Person("John", 45), 3000);
+        ReloadableKieBase.Lease lease = ruleBase.acquire();
+        try (lease) {
+            Function<LoanApplication, RuleResult> evaluate = application -> evaluation.evaluate(lease, application);
+            for (int i = 0; i < WARM_UP_EVALUATIONS; i++) {
+                evaluate.apply(loanApplication);
+            }
+            long threadId = Thread.currentThread().getId();
+            long before = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < EVALUATIONS; i++) {
+                evaluate.apply(loanApplication);
+            }
+            return (double) (THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - before) / EVALUATIONS;
+        }
+    }
+
+    private static RuleResult untracked(ReloadableKieBase.Lease lease, LoanApplication loanApplication) {
+        try (var kieSession = lease.newKieSession()) {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+            return null;
+        }
+    }
+
+    // the previous implementation of DroolsExecutorTool.executeRules
+    private static RuleResult withListener(ReloadableKieBase.Lease lease, LoanApplication loanApplication) {
+        try (var kieSession = lease.newKieSession()) {
+            List<String> firedRules = new ArrayList<>();
+            kieSession.addEventListener(new DefaultAgendaEventListener() {
+                @Override
+                public void afterMatchFired(AfterMatchFiredEvent event) {
+                    firedRules.add(event.getMatch().getRule().getName());
+                }
+            });
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+            return new RuleResult(loanApplication.isApproved(), firedRules);
+        }
+    }
+
+    private static RuleResult withTracker(ReloadableKieBase.Lease lease, LoanApplication loanApplication) {
+        try (var tracker = lease.borrowTracker(); var kieSession = lease.newKieSession()) {
+            tracker.attach(kieSession, lease.isDecisionFacts());
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+            return tracker.toRuleResult(loanApplication.isApproved());
+        }
+    }
+
+    private static RuleResult withListener(ReloadableKieBase ruleBase, LoanApplication loanApplication) {
+        try (var lease = ruleBase.acquire()) {
+            return withListener(lease, loanApplication);
+        }
+    }
+
+    private static RuleResult withTracker(ReloadableKieBase ruleBase, LoanApplication loanApplication) {
+        try (var lease = ruleBase.acquire()) {
+            return withTracker(lease, loanApplication);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Evaluation {
+
+        RuleResult evaluate(ReloadableKieBase.Lease lease, LoanApplication loanApplication);
+    }
+}
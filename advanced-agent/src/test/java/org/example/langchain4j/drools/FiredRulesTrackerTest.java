@@ -0,0 +1,98 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiredRulesTrackerTest {
+
+    @TempDir
+    Path drlDirectory;
+
+    @Test
+    void unknownRuleIsLeftOut() throws Exception {
+        writeDrl("known.drl", "Known");
+        writeDrl("both.drl", "Known", "Unknown");
+
+        try (ReloadableKieBase known = new ReloadableKieBase(drlDirectory, 0, false, "known.drl");
+             ReloadableKieBase both = new ReloadableKieBase(drlDirectory, 0, false, "both.drl");
+             var knownLease = known.acquire();
+             var lease = both.acquire();
+             var kieSession = lease.newKieSession()) {
+            // the RuleIndex of another version, which lacks the rule Unknown
+            FiredRulesTracker tracker = new FiredRulesTracker(new ArrayBlockingQueue<>(1)).start(knownLease.getRuleIndex());
+            tracker.attach(kieSession, false);
+
+            kieSession.insert(new LoanApplication(new Person("John", 45), 3000));
+            kieSession.fireAllRules();
+
+            assertThat(tracker.toRuleResult(true).getFiredRules()).containsExactly("Known");
+        }
+    }
+
+    @Test
+    void trackerIsReturnedOnceToItsVersion() throws Exception {
+        writeDrl("known.drl", "Known");
+
+        try (ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 0, false, "known.drl");
+             var lease = ruleBase.acquire()) {
+            FiredRulesTracker tracker = lease.borrowTracker();
+            tracker.close();
+            tracker.close();
+
+            assertThat(lease.borrowTracker()).isSameAs(tracker);
+            assertThat(lease.borrowTracker()).isNotSameAs(tracker);
+        }
+    }
+
+    @Test
+    void concurrentEvaluationsGetTheirOwnTracker() throws Exception {
+        DroolsExecutorTool tool = new DroolsExecutorTool(0, 0, 0);
+
+        // virtual threads on Java 21 or later, where a thread-local tracker would be created per evaluation
+        List<CompletableFuture<RuleResult>> futures = new ArrayList<>();
+        try (AsyncRuleExecutor executor = new AsyncRuleExecutor(16, 1000)) {
+            for (int i = 0; i < 1000; i++) {
+                LoanApplication loanApplication = i % 2 == 0
+                        ? new LoanApplication(new Person("John", 45), 3000)
+                        : new LoanApplication(new Person("Jane", 16), 3000);
+                futures.add(executor.submit(() -> tool.executeRules(loanApplication)));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                RuleResult result = futures.get(i).get();
+                assertThat(result.isApproved()).isEqualTo(i % 2 == 0);
+                assertThat(result.getFiredRules()).containsExactly(i % 2 == 0 ? "ApprovableAmount" : "NotAdult");
+            }
+        }
+    }
+
+    private void writeDrl(String fileName, String... ruleNames) throws Exception {
+        StringBuilder drl = new StringBuilder("""
+                package org.example;
+
+                import org.example.langchain4j.drools.domain.LoanApplication;
+                """);
+        for (String ruleName : ruleNames) {
+            drl.append("""
+
+                    rule %s
+                    when
+                        LoanApplication( amount <= 5000 )
+                    then
+                    end
+                    """.formatted(ruleName));
+        }
+        Files.writeString(drlDirectory.resolve(fileName), drl);
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.langchain4j.drools;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieServices;
+import org.kie.api.builder.ReleaseId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Builds KieBases repeatedly and checks that closed handles don't retain memory. Doesn't require LLM.
+ * The soak test is excluded by default. Run it with -Dgroups=soak -DexcludedGroups= and use -Dsoak.builds=N to change
+ * the number of builds.
+ */
+class KieBaseHandleSoakTest {
+
+    private static final String DRL = DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME;
+    private static final int BUILDS = Integer.getInteger("soak.builds", 1000);
+    private static final int WARM_UP_BUILDS = 50;
+    private static final int BATCHES = 5;
+    // the used heap after a batch varies by a few MB, but a KieBase retained per build adds far more than this per batch
+    private static final long MAX_HEAP_GROWTH_PER_BATCH_BYTES = 2 * 1024 * 1024;
+
+    @Test
+    void closedHandleIsRemovedFromRepository() {
+        KieBaseHandle handle = DroolsUtils.newKieBaseHandle(DRL);
+        ReleaseId releaseId = handle.getReleaseId();
+        assertThat(approve(handle)).isTrue();
+
+        try (KieBaseHandle other = DroolsUtils.newKieBaseHandle(DRL)) {
+            assertThat(other.getReleaseId()).isNotEqualTo(releaseId);
+
+            handle.close();
+            assertThat(handle.isClosed()).isTrue();
+            assertThat(KieServices.Factory.get().getRepository().getKieModule(releaseId)).isNull();
+            assertThatThrownBy(handle::getKieBase).isInstanceOf(IllegalStateException.class);
+
+            // closing one handle doesn't affect the others
+            assertThat(approve(other)).isTrue();
+        }
+    }
+
+    @Test
+    @Tag("soak")
+    void heapStaysFlatAcrossRepeatedBuilds() {
+        for (int i = 0; i < WARM_UP_BUILDS; i++) {
+            buildEvaluateAndClose();
+        }
+        List<Long> usedHeap = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int batch = 0; batch < BATCHES; batch++) {
+            for (int i = 0; i < BUILDS / BATCHES; i++) {
+                buildEvaluateAndClose();
+            }
+            usedHeap.add(usedHeapAfterGc());
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println(String.format("%d builds in %d ms: used heap after each batch (KB) %s",
+                                         BUILDS, elapsedMillis, usedHeap.stream().map(used -> used / 1024).toList()));
+        // the trend from one batch to the next, so a single noisy sample doesn't fail the test
+        assertThat(growthPerBatch(usedHeap)).isLessThan(MAX_HEAP_GROWTH_PER_BATCH_BYTES);
+    }
+
+    // least squares slope of the used heap over the batches
+    private static double growthPerBatch(List<Long> usedHeap) {
+        int n = usedHeap.size();
+        double meanX = (n - 1) / 2.0;
+        double meanY = usedHeap.stream().mapToLong(Long::longValue).average().orElse(0);
+        double covariance = 0;
+        double variance = 0;
+        for (int x = 0; x < n; x++) {
+            covariance += (x - meanX) * (usedHeap.get(x) - meanY);
+            variance += (x - meanX) * (x - meanX);
+        }
+        return covariance / variance;
+    }
+
+    private static void buildEvaluateAndClose() {
+        try (KieBaseHandle handle = DroolsUtils.newKieBaseHandle(DRL)) {
+            assertThat(approve(handle)).isTrue();
+        }
+    }
+
+    private static boolean approve(KieBaseHandle handle) {
+        LoanApplication loanApplication = new LoanApplication(new Person("John", 45), 3000);
+        try (var kieSession = handle.getKieBase().newKieSession()) {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        }
+        return loanApplication.isApproved();
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
@@ -0,0 +1,122 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Doesn't require LLM.
+ */
+class KieBaseInspectorTest {
+
+    private static final String JOIN_DRL = """
+            package org.example;
+
+            import org.example.langchain4j.drools.domain.LoanApplication;
+            import org.example.langchain4j.drools.domain.Person;
+
+            rule AdultApprovable
+            when
+                $p: Person( age >= 18 )
+                LoanApplication( applicant == $p, amount <= 5000 )
+            then
+            end
+
+            rule AdultHighAmount
+            when
+                $p: Person( age >= 18 )
+                LoanApplication( applicant == $p, amount > 5000 )
+            then
+            end
+
+            rule NoApplication
+            when
+                $p: Person()
+                not LoanApplication( applicant == $p )
+            then
+            end
+            """;
+
+    @TempDir
+    Path drlDirectory;
+
+    @Test
+    void reportsNetworkShapeAndSessionMemories() throws Exception {
+        Path drl = Files.writeString(drlDirectory.resolve("join.drl"), JOIN_DRL);
+        try (KieBaseHandle handle = DroolsUtils.newKieBaseHandle(List.of(drl))) {
+            KieBaseInspector.NetworkReport network = KieBaseInspector.inspect(handle.getKieBase());
+            System.out.println(network.report());
+
+            assertThat(network.rules()).isEqualTo(3);
+            assertThat(network.nodesByType()).containsEntry("JoinNode", 2).containsEntry("NotNode", 1)
+                    .containsEntry("RuleTerminalNode", 3);
+            assertThat(network.betaNodes()).isEqualTo(3);
+            // Person( age >= 18 ) and its left input adapter are shared by the two Adult rules
+            assertThat(network.sharedNodes()).isPositive();
+            assertThat(network.memoryNodes()).isPositive().isLessThanOrEqualTo(network.memoryIds());
+
+            KieSession kieSession = handle.getKieBase().newKieSession();
+            try {
+                for (int i = 0; i < 10; i++) {
+                    Person person = new Person("John" + i, 20 + i);
+                    kieSession.insert(person);
+                    if (i % 2 == 0) {
+                        kieSession.insert(new LoanApplication(person, 1000 * i));
+                    }
+                }
+                kieSession.fireAllRules();
+
+                KieBaseInspector.SessionReport session = KieBaseInspector.inspect(kieSession);
+                System.out.println(session.report());
+
+                assertThat(session.facts()).isEqualTo(15);
+                assertThat(session.alphaMemories()).containsEntry(Person.class.getName(), 10L)
+                        .containsEntry(LoanApplication.class.getName(), 5L);
+                assertThat(session.nodeMemories()).isPositive();
+                assertThat(session.leftTuples()).isPositive();
+                assertThat(session.rightTuples()).isPositive();
+            } finally {
+                kieSession.dispose();
+            }
+        }
+    }
+
+    @Test
+    void estimatesKieBaseAndSessionHeap() {
+        List<Path> drl = List.of(DroolsUtils.getDrlDirectory(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME)
+                                         .resolve(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME));
+        // loads the classes, so the estimate below is the KieBase itself
+        DroolsUtils.newKieBaseHandle(drl).close();
+
+        long kieBaseBytes = KieBaseInspector.estimateKieBaseBytes(() -> DroolsUtils.newKieBaseHandle(drl));
+
+        try (KieBaseHandle handle = DroolsUtils.newKieBaseHandle(drl)) {
+            KieBase kieBase = handle.getKieBase();
+            System.out.println(KieBaseInspector.inspect(kieBase).report());
+
+            long emptySessionBytes = KieBaseInspector.estimateSessionBytes(kieBase, 200, kieSession -> {
+            });
+            long populatedSessionBytes = KieBaseInspector.estimateSessionBytes(kieBase, 200, kieSession -> {
+                for (int i = 0; i < 1000; i++) {
+                    kieSession.insert(new LoanApplication(new Person("John", 45), 3000));
+                }
+                kieSession.fireAllRules();
+            });
+
+            System.out.println(String.format("KieBase=%d KB, empty session=%d KB, session with 1000 applications=%d KB",
+                                             kieBaseBytes / 1024, emptySessionBytes / 1024, populatedSessionBytes / 1024));
+            assertThat(kieBaseBytes).isPositive();
+            assertThat(emptySessionBytes).isPositive();
+            assertThat(populatedSessionBytes).isGreaterThan(emptySessionBytes);
+        }
+    }
+}
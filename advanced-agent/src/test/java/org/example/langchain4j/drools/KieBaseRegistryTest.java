@@ -0,0 +1,47 @@
+package org.example.langchain4j.drools;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KieBaseRegistryTest {
+
+    @Test
+    void identicalRuleSetsAreCompiledOnce() {
+        KieBaseRegistry registry = DroolsUtils.getKieBaseRegistry();
+
+        KieBase first = DroolsUtils.createKieBase(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME);
+        long hits = registry.getHits();
+        long misses = registry.getMisses();
+
+        KieBase second = DroolsUtils.createKieBase(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME);
+
+        assertThat(second).isSameAs(first);
+        assertThat(registry.getHits()).isEqualTo(hits + 1);
+        assertThat(registry.getMisses()).isEqualTo(misses);
+        assertThat(registry.getEntries())
+                .filteredOn(entry -> entry.kieBase() == first)
+                .singleElement()
+                .satisfies(entry -> {
+                    assertThat(entry.resources()).containsExactly("org/example/loan-application.drl");
+                    // measuring runs full GCs, so it is off unless drools.registry.measure.heap is set
+                    assertThat(entry.retainedBytes()).isEqualTo(-1);
+                });
+
+        System.out.println(registry.report());
+    }
+
+    @Test
+    void measuresRetainedHeapWhenEnabled() {
+        KieBaseRegistry registry = new KieBaseRegistry(true);
+        Map<String, byte[]> drlFiles = Map.of("org/example/a.drl", "rule A when then end".getBytes());
+
+        registry.getOrBuild(drlFiles, files -> DroolsUtils.createKieBase(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME));
+
+        assertThat(registry.getEntries()).singleElement()
+                .satisfies(entry -> assertThat(entry.retainedBytes()).isNotNegative());
+    }
+}
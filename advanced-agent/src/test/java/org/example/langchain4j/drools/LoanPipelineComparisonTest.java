@@ -0,0 +1,53 @@
+package org.example.langchain4j.drools;
+
+import java.util.function.BiFunction;
+
+import dev.langchain4j.model.chat.ChatModel;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.example.langchain4j.drools.Models.baseModel;
+import static org.example.langchain4j.drools.Models.plannerModel;
+
+/**
+ * Compares the LLM round trips and the end-to-end latency of the supervisor with a SUMMARY response
+ * and the templated sequence. Requires LLM.
+ */
+class LoanPipelineComparisonTest {
+
+    private static final int REQUESTS = 3;
+    private static final String REQUEST = """
+            Evaluate a loan application for John who is a 45 year old person requesting a loan of $8000.
+            """;
+
+    @Test
+    void compareSupervisorAndTemplatedSequence() {
+        CountingChatModel model = new CountingChatModel(baseModel());
+        CountingChatModel planner = plannerModel() == baseModel() ? model : new CountingChatModel(plannerModel());
+
+        String supervisor = run("supervisor", model, planner, LoanPipelines::supervisor);
+        String templated = run("templated sequence", model, planner, (m, p) -> LoanPipelines.templated(m));
+
+        System.out.println("===================================================");
+        System.out.println(supervisor);
+        System.out.println(templated);
+    }
+
+    private static String run(String name, CountingChatModel model, CountingChatModel planner,
+                              BiFunction<ChatModel, ChatModel, LoanAssistant> pipeline) {
+        LoanAssistant loanAssistant = pipeline.apply(model, planner);
+        model.reset();
+        planner.reset();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            assertThat(loanAssistant.approveLoan(REQUEST).result()).containsAnyOf("rejected");
+        }
+        long elapsed = System.nanoTime() - start;
+
+        long calls = model.getCalls() + (planner != model ? planner.getCalls() : 0);
+        long modelNanos = model.getNanos() + (planner != model ? planner.getNanos() : 0);
+        return String.format("%-20s LLM calls per request=%.1f  latency per request=%d ms (LLM %d ms)",
+                             name, (double) calls / REQUESTS, elapsed / REQUESTS / 1_000_000, modelNanos / REQUESTS / 1_000_000);
+    }
+}
@@ -6,16 +6,21 @@ import dev.langchain4j.model.openai.OpenAiChatModelName;
 
 public class Models {
 
-    private static final ChatModel OPENAI_BASE_MODEL = OpenAiChatModel.builder()
-            .apiKey(System.getenv("OPENAI_API_KEY"))
-            .modelName(OpenAiChatModelName.GPT_4_O_MINI)
-                        .temperature(0.0)
-                        .logRequests(true)
-                        .logResponses(true)
-                        .build();
+    // -Dllm.mode=record|replay, see ChatModelRecordings
+    private static final ChatModel OPENAI_BASE_MODEL = ChatModelRecordings.of("base", Models::openAiModel);
 
     private static final ChatModel OPENAI_PLANNER_MODEL = OPENAI_BASE_MODEL;
 
+    private static ChatModel openAiModel() {
+        return OpenAiChatModel.builder()
+                .apiKey(System.getenv("OPENAI_API_KEY"))
+                .modelName(OpenAiChatModelName.GPT_4_O_MINI)
+                .temperature(0.0)
+                .logRequests(true)
+                .logResponses(true)
+                .build();
+    }
+
     public static ChatModel baseModel() {
         return OPENAI_BASE_MODEL;
     }
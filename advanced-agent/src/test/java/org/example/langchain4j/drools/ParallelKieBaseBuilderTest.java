@@ -0,0 +1,142 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.api.KieBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compiles several product rule sets sequentially and with ParallelKieBaseBuilder. Doesn't require LLM.
+ */
+class ParallelKieBaseBuilderTest {
+
+    private static final String DRL = DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME;
+    private static final int RULE_SETS = 8;
+    private static final int THREADS = 4;
+
+    @TempDir
+    Path drlDirectory;
+
+    @Test
+    void compareSequentialAndParallelBuilds() throws Exception {
+        // different thresholds, so each product is a different rule set
+        List<List<Path>> ruleSets = new ArrayList<>();
+        for (int i = 0; i < RULE_SETS; i++) {
+            ruleSets.add(writeRuleSet("product" + i, 1000 * (i + 1)));
+        }
+        // warm up class loading and JIT, so the first measurement isn't penalized
+        DroolsUtils.newKieBaseHandle(ruleSets.get(0)).close();
+
+        long start = System.nanoTime();
+        for (List<Path> ruleSet : ruleSets) {
+            DroolsUtils.newKieBaseHandle(ruleSet).close();
+        }
+        long sequentialMillis = (System.nanoTime() - start) / 1_000_000;
+
+        List<KieBaseHandle> handles = new ArrayList<>();
+        try (ParallelKieBaseBuilder builder = new ParallelKieBaseBuilder(THREADS)) {
+            start = System.nanoTime();
+            List<CompletableFuture<KieBaseHandle>> futures = new ArrayList<>();
+            for (List<Path> ruleSet : ruleSets) {
+                futures.add(builder.buildHandle(ParallelKieBaseBuilder.DEFAULT_PRIORITY, ruleSet));
+            }
+            for (CompletableFuture<KieBaseHandle> future : futures) {
+                handles.add(future.join());
+            }
+            long parallelMillis = (System.nanoTime() - start) / 1_000_000;
+
+            System.out.println(String.format("%d rule sets: sequential=%d ms  parallel(%d threads)=%d ms",
+                                             RULE_SETS, sequentialMillis, THREADS, parallelMillis));
+
+            for (int i = 0; i < RULE_SETS; i++) {
+                // product i approves up to 1000 * (i + 1)
+                assertThat(approve(handles.get(i).getKieBase(), 1000 * (i + 1))).isTrue();
+                assertThat(approve(handles.get(i).getKieBase(), 1000 * (i + 1) + 1)).isFalse();
+            }
+        } finally {
+            handles.forEach(KieBaseHandle::close);
+        }
+    }
+
+    @Test
+    void higherPriorityRuleSetIsBuiltFirst() throws Exception {
+        List<Path> background = writeRuleSet("background", 1002);
+        List<Path> needed = writeRuleSet("needed", 1003);
+
+        List<String> completed = new CopyOnWriteArrayList<>();
+        CountDownLatch busy = new CountDownLatch(1);
+        try (ParallelKieBaseBuilder builder = new ParallelKieBaseBuilder(1)) {
+            // occupies the only thread, so the next two are queued
+            CompletableFuture<Boolean> running = builder.submit(ParallelKieBaseBuilder.DEFAULT_PRIORITY, () -> awaitQuietly(busy));
+            CompletableFuture<KieBaseHandle> f1 = builder.buildHandle(ParallelKieBaseBuilder.DEFAULT_PRIORITY, background);
+            CompletableFuture<KieBaseHandle> f2 = builder.buildHandle(0, needed);
+            CompletableFuture<Void> r1 = f1.thenRun(() -> completed.add("background"));
+            CompletableFuture<Void> r2 = f2.thenRun(() -> completed.add("needed"));
+            assertThat(builder.getQueuedBuilds()).isEqualTo(2);
+            busy.countDown();
+
+            // the callbacks, not only the builds, must be complete before checking the order
+            CompletableFuture.allOf(running, r1, r2).join();
+            assertThat(completed).containsExactly("needed", "background");
+            f1.join().close();
+            f2.join().close();
+        }
+    }
+
+    @Test
+    void concurrentBuildsOfSameRuleSetAreShared() throws Exception {
+        List<Path> ruleSet = writeRuleSet("shared", 1000 + (int) (System.nanoTime() % 1000));
+        KieBaseRegistry registry = DroolsUtils.getKieBaseRegistry();
+        long misses = registry.getMisses();
+
+        try (ParallelKieBaseBuilder builder = new ParallelKieBaseBuilder(THREADS)) {
+            List<CompletableFuture<KieBase>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(builder.build(ruleSet));
+            }
+            KieBase kieBase = futures.get(0).join();
+            for (CompletableFuture<KieBase> future : futures) {
+                assertThat(future.join()).isSameAs(kieBase);
+            }
+        }
+        assertThat(registry.getMisses()).isEqualTo(misses + 1);
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private List<Path> writeRuleSet(String product, int maxAmount) throws Exception {
+        Path directory = Files.createDirectories(drlDirectory.resolve(product));
+        String drl = DroolsUtils.getDrlRulesAsString(DRL)
+                .replace("amount <= 5000", "amount <= " + maxAmount)
+                .replace("amount > 5000", "amount > " + maxAmount);
+        return List.of(Files.writeString(directory.resolve(DRL), drl));
+    }
+
+    private static boolean approve(KieBase kieBase, int amount) {
+        LoanApplication loanApplication = new LoanApplication(new Person("John", 45), amount);
+        try (var kieSession = kieBase.newKieSession()) {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        }
+        return loanApplication.isApproved();
+    }
+}
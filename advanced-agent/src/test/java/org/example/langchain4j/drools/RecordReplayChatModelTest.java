@@ -0,0 +1,88 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Doesn't require LLM. The live model is replaced by a stub.
+ */
+class RecordReplayChatModelTest {
+
+    private static final String REQUEST = """
+            Evaluate a loan application for John who is a 45 year old person requesting a loan of $8000.
+            """;
+
+    // the extractor is the only LLM agent of LoanPipelines.templated
+    private static final ChatModel STUB = new ChatModel() {
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            return ChatResponse.builder()
+                    .aiMessage(AiMessage.from("{\"applicant\": {\"name\": \"John\", \"age\": 45}, \"amount\": 8000}"))
+                    .build();
+        }
+    };
+
+    @TempDir
+    Path recordings;
+
+    @Test
+    void replaysRecordedPipelineOffline() {
+        Path file = recordings.resolve("base.jsonl");
+        String recordedSummary;
+        try (RecordingChatModel recording = new RecordingChatModel(STUB, file)) {
+            recordedSummary = LoanPipelines.templated(recording).approveLoan(REQUEST).result();
+            assertThat(recording.getRecorded()).isEqualTo(1);
+        }
+
+        ReplayChatModel replay = new ReplayChatModel(file, Duration.ZERO);
+        LoanAssistant loanAssistant = LoanPipelines.templated(replay);
+        // more runs than recorded, the last response of the request is served again
+        for (int i = 0; i < 3; i++) {
+            assertThat(loanAssistant.approveLoan(REQUEST).result()).isEqualTo(recordedSummary).contains("rejected", "HighAmount");
+        }
+        System.out.println(replay.report());
+        assertThat(replay.getReplayed()).isEqualTo(3);
+        assertThat(replay.getUnmatched()).isZero();
+    }
+
+    @Test
+    void waitsConfiguredLatency() {
+        Path file = recordings.resolve("latency.jsonl");
+        try (RecordingChatModel recording = new RecordingChatModel(STUB, file)) {
+            recording.chat(ChatRequest.builder().messages(UserMessage.from("John, 45, $8000")).build());
+        }
+
+        ReplayChatModel replay = new ReplayChatModel(file, Duration.ofMillis(20));
+        long start = System.nanoTime();
+        assertThat(replay.chat("John, 45, $8000")).contains("\"amount\": 8000");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+        assertThat(replay.getReplayed()).isEqualTo(1);
+    }
+
+    @Test
+    void unrecordedRequestFailsUnlessLenient() {
+        Path file = recordings.resolve("unrecorded.jsonl");
+        try (RecordingChatModel recording = new RecordingChatModel(STUB, file)) {
+            recording.chat(ChatRequest.builder().messages(UserMessage.from("John, 45, $8000")).build());
+        }
+
+        assertThatThrownBy(() -> new ReplayChatModel(file, Duration.ZERO).chat("Jane, 30, $3000"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(ChatModelRecordings.LENIENT_PROPERTY);
+
+        ReplayChatModel lenient = new ReplayChatModel(file, Duration.ZERO, true);
+        assertThat(lenient.chat("Jane, 30, $3000")).contains("\"amount\": 8000");
+        assertThat(lenient.getUnmatched()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,144 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReloadableKieBaseTest {
+
+    private static final String DRL = DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME;
+
+    @TempDir
+    Path drlDirectory;
+
+    @Test
+    void reloadSwapsVersionAndInFlightEvaluationKeepsOldOne() throws Exception {
+        writeDrl(5000);
+        try (ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 0, DRL)) {
+            assertThat(ruleBase.getVersion()).isEqualTo("1.0.0");
+            assertThat(approve(ruleBase, 8000)).isFalse();
+
+            try (ReloadableKieBase.Lease inFlight = ruleBase.acquire()) {
+                writeDrl(10000);
+                assertThat(ruleBase.reload()).isTrue();
+
+                assertThat(ruleBase.getVersion()).isEqualTo("1.0.1");
+                assertThat(ruleBase.getLastRebuildTimeMillis()).isNotNegative();
+                assertThat(approve(ruleBase, 8000)).isTrue();
+                // the evaluation which acquired the previous version still sees the previous rules
+                assertThat(approve(inFlight, 8000)).isFalse();
+                assertThat(inFlight.getDrlSource(DRL)).contains("amount <= 5000");
+            }
+
+            // the standby container is updated in place from now on
+            writeDrl(6000);
+            assertThat(ruleBase.reload()).isTrue();
+            assertThat(ruleBase.getVersion()).isEqualTo("1.0.2");
+            assertThat(approve(ruleBase, 8000)).isFalse();
+
+            writeDrl(9000);
+            assertThat(ruleBase.reload()).isTrue();
+            assertThat(ruleBase.getVersion()).isEqualTo("1.0.3");
+            assertThat(approve(ruleBase, 8000)).isTrue();
+        }
+    }
+
+    @Test
+    void brokenRulesKeepCurrentVersion() throws Exception {
+        writeDrl(5000);
+        try (ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 0, DRL)) {
+            Files.writeString(drlDirectory.resolve(DRL), "rule Broken when LoanApplication( then end");
+
+            assertThat(ruleBase.reload()).isFalse();
+            assertThat(ruleBase.getLastReloadError()).isNotNull();
+            assertThat(ruleBase.getVersion()).isEqualTo("1.0.0");
+            assertThat(approve(ruleBase, 3000)).isTrue();
+        }
+    }
+
+    @Test
+    void watcherReloadsChangedFile() throws Exception {
+        writeDrl(5000);
+        try (ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 2, DRL)) {
+            ruleBase.startWatching();
+
+            writeDrl(10000);
+
+            long deadline = System.currentTimeMillis() + 30_000;
+            while (ruleBase.getVersion().equals("1.0.0") && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50);
+            }
+            assertThat(ruleBase.getVersion()).isNotEqualTo("1.0.0");
+            assertThat(approve(ruleBase, 8000)).isTrue();
+        }
+    }
+
+    @Test
+    void leakedLeaseFailsReloadAfterDrainTimeout() throws Exception {
+        writeDrl(5000);
+        try (ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 0, false, DRL)) {
+            ruleBase.setDrainTimeoutMillis(200);
+            ReloadableKieBase.Lease leaked = ruleBase.acquire();
+            writeDrl(10000);
+            assertThat(ruleBase.reload()).isTrue();
+
+            // the next reload needs the version the leaked lease still holds
+            writeDrl(6000);
+            assertThat(ruleBase.reload()).isFalse();
+            assertThat(ruleBase.getLastReloadError()).contains("still used by 1 evaluations");
+            assertThat(ruleBase.getVersion()).isEqualTo("1.0.1");
+            assertThat(approve(ruleBase, 8000)).isTrue();
+
+            // closing twice releases the version only once
+            leaked.close();
+            leaked.close();
+            assertThat(ruleBase.reload()).isTrue();
+            assertThat(ruleBase.getVersion()).isEqualTo("1.0.3");
+            assertThat(approve(ruleBase, 8000)).isFalse();
+        }
+    }
+
+    @Test
+    void closeDoesNotWaitForeverForLeakedLease() throws Exception {
+        writeDrl(5000);
+        ReloadableKieBase ruleBase = new ReloadableKieBase(drlDirectory, 0, false, DRL);
+        ruleBase.setDrainTimeoutMillis(200);
+        ReloadableKieBase.Lease leaked = ruleBase.acquire();
+
+        long start = System.nanoTime();
+        ruleBase.close();
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(5_000);
+
+        // the version is released when the lease is closed
+        assertThat(approve(leaked, 3000)).isTrue();
+        leaked.close();
+    }
+
+    private void writeDrl(int maxAmount) throws Exception {
+        String drl = DroolsUtils.getDrlRulesAsString(DRL)
+                .replace("amount <= 5000", "amount <= " + maxAmount)
+                .replace("amount > 5000", "amount > " + maxAmount);
+        Files.writeString(drlDirectory.resolve(DRL), drl);
+    }
+
+    private static boolean approve(ReloadableKieBase ruleBase, int amount) {
+        try (ReloadableKieBase.Lease lease = ruleBase.acquire()) {
+            return approve(lease, amount);
+        }
+    }
+
+    private static boolean approve(ReloadableKieBase.Lease lease, int amount) {
+        LoanApplication loanApplication = new LoanApplication(new Person("John", 45), amount);
+        try (var kieSession = lease.newKieSession()) {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        }
+        return loanApplication.isApproved();
+    }
+}
@@ -0,0 +1,95 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSessionsPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class RuleProfilerTest {
+
+    @TempDir
+    Path drlDirectory;
+
+    @Test
+    void countsMatchesPerRuleAcrossPooledSessions() {
+        KieBase kieBase = DroolsUtils.createKieBase(DroolsExecutorTool.LOAN_APPLICATION_DRL_FILE_NAME);
+        KieSessionsPool pool = kieBase.newKieSessionsPool(1);
+        RuleProfiler profiler = new RuleProfiler();
+        try {
+            for (int i = 0; i < 3; i++) {
+                // the pooled session is reset on close(), so the profiler is attached each time
+                try (var kieSession = pool.newKieSession()) {
+                    profiler.attach(kieSession);
+                    kieSession.insert(new LoanApplication(new Person("John", 45), 3000));
+                    kieSession.fireAllRules();
+                }
+                var statelessSession = pool.newStatelessKieSession();
+                profiler.attach(statelessSession);
+                statelessSession.execute(List.of(new LoanApplication(new Person("Jane", 16), 3000),
+                                                 new LoanApplication(new Person("Alice", 30), 8000)));
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(profiler.getProfiles())
+                .extracting(RuleProfiler.RuleProfile::ruleName, RuleProfiler.RuleProfile::created, RuleProfiler.RuleProfile::fired)
+                .containsExactlyInAnyOrder(tuple("ApprovableAmount", 3L, 3L),
+                                           tuple("NotAdult", 3L, 3L),
+                                           tuple("HighAmount", 3L, 3L));
+        assertThat(profiler.getProfiles()).allSatisfy(profile -> {
+            assertThat(profile.totalNanos()).isPositive();
+            assertThat(profile.p50Nanos()).isLessThanOrEqualTo(profile.p99Nanos());
+        });
+        System.out.println(profiler.report());
+    }
+
+    @Test
+    void profileOfLargerRuleSet() throws Exception {
+        // every application matches the rules with a lower threshold than its amount, but only the highest one decides.
+        // The others are cancelled when the decision removes the application from their match
+        StringBuilder drl = new StringBuilder("""
+                package org.example;
+
+                import org.example.langchain4j.drools.domain.LoanApplication;
+                """);
+        for (int i = 0; i < 50; i++) {
+            drl.append(String.format("""
+
+                    rule Tier%02d salience %d
+                    when
+                        $l: LoanApplication( approved == false, amount > %d )
+                    then
+                        modify($l) { setApproved(true) };
+                    end
+                    """, i, i, i * 200));
+        }
+        Path drlFile = Files.writeString(drlDirectory.resolve("tiers.drl"), drl);
+
+        RuleProfiler profiler = new RuleProfiler();
+        try (KieBaseHandle handle = DroolsUtils.newKieBaseHandle(List.of(drlFile))) {
+            for (int amount = 100; amount <= 10000; amount += 100) {
+                try (var kieSession = handle.getKieBase().newKieSession()) {
+                    profiler.attach(kieSession);
+                    kieSession.insert(new LoanApplication(new Person("John", 45), amount));
+                    kieSession.fireAllRules();
+                }
+            }
+        }
+
+        List<RuleProfiler.RuleProfile> profiles = profiler.getProfiles();
+        assertThat(profiles).hasSize(50);
+        assertThat(profiles.stream().mapToLong(RuleProfiler.RuleProfile::fired).sum()).isEqualTo(100);
+        assertThat(profiles.stream().mapToLong(RuleProfiler.RuleProfile::cancelled).sum()).isPositive();
+        System.out.println(profiler.report());
+    }
+}
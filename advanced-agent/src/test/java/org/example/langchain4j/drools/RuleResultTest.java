@@ -0,0 +1,29 @@
+package org.example.langchain4j.drools;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.langchain4j.internal.Json;
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleResultTest {
+
+    // tool results are serialized with the JSON codec of langchain4j and sent to the LLM
+    @Test
+    void serializesApprovedAndFiredRulesOnly() throws Exception {
+        RuleResult result = new DroolsExecutorTool(0, 0, 0).executeRules(new LoanApplication(new Person("John", 45), 3000));
+
+        String json = Json.toJson(result);
+        System.out.println(json);
+
+        Map<String, Object> properties = new ObjectMapper().readValue(json, new TypeReference<>() {});
+        assertThat(properties).containsOnlyKeys("approved", "firedRules");
+        assertThat(properties.get("approved")).isEqualTo(true);
+        assertThat(properties.get("firedRules")).asList().containsExactly("ApprovableAmount");
+    }
+}
@@ -0,0 +1,193 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+class RuleSetRegistryTest {
+
+    @TempDir
+    Path ruleSetDirectory;
+
+    @Test
+    void routesToRuleSetAndUnloadsLeastRecentlyUsed() throws Exception {
+        // 2 rules each
+        writeRuleSet("tenant-a", 2, 1000);
+        writeRuleSet("tenant-b", 2, 2000);
+        writeRuleSet("tenant-c", 2, 3000);
+
+        try (RuleSetRegistry registry = new RuleSetRegistry(ruleSetDirectory, 0, 4, 4)) {
+            assertThat(registry.getRuleSetIds()).containsExactly("tenant-a", "tenant-b", "tenant-c");
+
+            assertThat(evaluate(registry, "tenant-a", 1500)).isFalse();
+            assertThat(evaluate(registry, "tenant-b", 1500)).isTrue();
+            // tenant-a becomes the most recently used
+            assertThat(evaluate(registry, "tenant-a", 500)).isTrue();
+            assertThat(registry.getLoadedRuleSetIds()).containsExactly("tenant-b", "tenant-a");
+
+            assertThat(evaluate(registry, "tenant-c", 2500)).isTrue();
+            assertThat(registry.getLoadedRuleSetIds()).containsExactly("tenant-a", "tenant-c");
+            assertThat(registry.getLoadedRules()).isEqualTo(4);
+
+            assertThat(registry.getMetrics())
+                    .filteredOn(metrics -> metrics.ruleSetId().equals("tenant-b"))
+                    .singleElement()
+                    .satisfies(metrics -> {
+                        assertThat(metrics.loads()).isEqualTo(1);
+                        assertThat(metrics.unloads()).isEqualTo(1);
+                        assertThat(metrics.loadedRules()).isZero();
+                    });
+            System.out.println(registry.report());
+        }
+    }
+
+    @Test
+    void largeRuleSetIsRejectedWithoutUnloadingOthers() throws Exception {
+        writeRuleSet("small", 2, 1000);
+        writeRuleSet("large", 10, 1000);
+
+        try (RuleSetRegistry registry = new RuleSetRegistry(ruleSetDirectory, 0, 12, 6)) {
+            assertThat(evaluate(registry, "small", 500)).isTrue();
+
+            assertThatThrownBy(() -> registry.acquire("large")).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("has 10 rules");
+            assertThat(registry.getLoadedRuleSetIds()).containsExactly("small");
+        }
+    }
+
+    @Test
+    void rejectedRuleSetIsNotCompiledAgainUntilItChanges() throws Exception {
+        writeRuleSet("large", 10, 1000);
+
+        try (RuleSetRegistry registry = new RuleSetRegistry(ruleSetDirectory, 0, 12, 6)) {
+            Throwable first = catchThrowable(() -> registry.acquire("large"));
+            assertThat(first).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("has 10 rules");
+            // remembered, not compiled again
+            assertThat(catchThrowable(() -> registry.acquire("large"))).isSameAs(first);
+
+            writeRuleSet("large", 4, 1000);
+            Path drlFile = ruleSetDirectory.resolve("large.drl");
+            Files.setLastModifiedTime(drlFile, FileTime.fromMillis(Files.getLastModifiedTime(drlFile).toMillis() + 1000));
+            assertThat(evaluate(registry, "large", 500)).isTrue();
+        }
+    }
+
+    @Test
+    void leakedLeaseDoesNotBlockUnloading() throws Exception {
+        writeRuleSet("tenant-a", 2, 1000);
+        writeRuleSet("tenant-b", 2, 2000);
+        writeRuleSet("tenant-c", 2, 3000);
+
+        RuleSetRegistry registry = new RuleSetRegistry(ruleSetDirectory, 0, 2, 2);
+        // never closed
+        ReloadableKieBase.Lease leaked = registry.acquire("tenant-a");
+        assertThat(leaked).isNotNull();
+        // unloads tenant-a, then tenant-b, while tenant-a is still in use
+        assertThat(evaluate(registry, "tenant-b", 500)).isTrue();
+        assertThat(evaluate(registry, "tenant-c", 500)).isTrue();
+        assertThat(registry.getLoadedRuleSetIds()).containsExactly("tenant-c");
+
+        // well below the 10 s drain timeout of each unload
+        CompletableFuture.runAsync(registry::close).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void unknownRuleSetIsRejected() throws Exception {
+        writeRuleSet("tenant-a", 1, 1000);
+        Files.writeString(ruleSetDirectory.getParent().resolve("outside.drl"), "");
+
+        try (RuleSetRegistry registry = new RuleSetRegistry(ruleSetDirectory, 0, 10, 10)) {
+            assertThatThrownBy(() -> registry.acquire("tenant-x")).isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("tenant-a");
+            assertThatThrownBy(() -> registry.acquire("../outside")).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void unloadedRuleSetIsReleasedAfterEvaluationsComplete() throws Exception {
+        writeRuleSet("tenant-a", 2, 1000);
+        writeRuleSet("tenant-b", 2, 2000);
+
+        try (RuleSetRegistry registry = new RuleSetRegistry(ruleSetDirectory, 2, 2, 2)) {
+            ReloadableKieBase.Lease lease = registry.acquire("tenant-a");
+            // unloads tenant-a on another thread, while this thread still holds it
+            CompletableFuture.runAsync(() -> evaluate(registry, "tenant-b", 500)).get(60, TimeUnit.SECONDS);
+            assertThat(registry.getLoadedRuleSetIds()).containsExactly("tenant-b");
+
+            try (lease; var kieSession = lease.newKieSession()) {
+                LoanApplication loanApplication = new LoanApplication(new Person("John", 45), 500);
+                kieSession.insert(loanApplication);
+                kieSession.fireAllRules();
+                assertThat(loanApplication.isApproved()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void toolRoutesToRuleSet() {
+        DroolsExecutorTool tool = new DroolsExecutorTool(0);
+        assertThat(tool.getRuleSetIds()).contains(DroolsExecutorTool.DEFAULT_RULE_SET_ID, "student-loan");
+
+        RuleResult student = tool.executeRulesForRuleSet("student-loan", new LoanApplication(new Person("John", 22), 15000));
+        assertThat(student.isApproved()).isTrue();
+        assertThat(student.getFiredRules()).containsExactly("StudentApprovableAmount");
+
+        RuleResult standard = tool.executeRulesForRuleSet(DroolsExecutorTool.DEFAULT_RULE_SET_ID, new LoanApplication(new Person("John", 22), 15000));
+        assertThat(standard.isApproved()).isFalse();
+        assertThat(standard.getFiredRules()).containsExactly("HighAmount");
+
+        assertThat(tool.getRuleSets().getMetrics())
+                .extracting(RuleSetRegistry.TenantMetrics::ruleSetId)
+                .contains("student-loan", DroolsExecutorTool.DEFAULT_RULE_SET_ID);
+        assertThat(tool.getRuleSets().getLoadedRuleSetIds()).containsExactly("student-loan");
+    }
+
+    private static boolean evaluate(RuleSetRegistry registry, String ruleSetId, int amount) {
+        long start = System.nanoTime();
+        try (var lease = registry.acquire(ruleSetId); var kieSession = lease.newKieSession()) {
+            LoanApplication loanApplication = new LoanApplication(new Person("John", 45), amount);
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+            registry.recordEvaluation(ruleSetId, System.nanoTime() - start);
+            return loanApplication.isApproved();
+        }
+    }
+
+    // approves amounts up to maxAmount. The other rules never match
+    private void writeRuleSet(String ruleSetId, int rules, int maxAmount) throws Exception {
+        StringBuilder drl = new StringBuilder("""
+                package org.example;
+
+                import org.example.langchain4j.drools.domain.LoanApplication;
+
+                rule Approve
+                when
+                    $l: LoanApplication( approved == false, amount <= %d )
+                then
+                    modify($l) { setApproved(true) };
+                end
+                """.formatted(maxAmount));
+        for (int i = 1; i < rules; i++) {
+            drl.append("""
+
+                    rule Unused%d
+                    when
+                        $l: LoanApplication( amount < 0, applicant.age == %d )
+                    then
+                    end
+                    """.formatted(i, i));
+        }
+        Files.writeString(ruleSetDirectory.resolve(ruleSetId + ".drl"), drl);
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.langchain4j.drools;
+
+import java.util.List;
+import java.util.Map;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RuleSourceIndexTest {
+
+    @Test
+    void indexesEachRule() {
+        String drl = """
+                package org.example;
+
+                import org.example.langchain4j.drools.domain.LoanApplication;
+
+                rule "Quoted name" salience 10
+                when
+                    $l: LoanApplication( amount > 100 )
+                then
+                    // not the end of the rule
+                    System.out.println("end");
+                end
+
+                rule Plain
+                when
+                    $l: LoanApplication( amount <= 100 )
+                then
+                end
+                """;
+
+        RuleSourceIndex index = RuleSourceIndex.of(Map.of("rules.drl", drl));
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(index.getSource("Quoted name"))
+                .startsWith("rule \"Quoted name\" salience 10")
+                .contains("System.out.println(\"end\");")
+                .endsWith("end")
+                .doesNotContain("Plain");
+        assertThat(index.getSource("Plain")).startsWith("rule Plain").endsWith("end");
+        assertThat(index.getSource("Unknown")).isNull();
+        assertThat(index.getSources(List.of("Plain", "Unknown", "Quoted name")))
+                .isEqualTo(index.getSource("Plain") + "\n\n" + index.getSource("Quoted name") + "\n\n// unknown rules: Unknown");
+        assertThat(index.getSources(List.of("Unknown"))).isEqualTo("// unknown rules: Unknown");
+    }
+
+    @Test
+    void toolReturnsOnlyFiredRules() {
+        DroolsExecutorTool tool = new DroolsExecutorTool(0);
+        RuleResult result = tool.executeRules(new LoanApplication(new Person("John", 45), 8000));
+
+        String firedRules = tool.getDrlRules(DroolsExecutorTool.DEFAULT_RULE_SET_ID, result.getFiredRules());
+        String allRules = tool.getLoanApplicationDrlRules();
+
+        assertThat(firedRules).startsWith("rule HighAmount").endsWith("end")
+                .doesNotContain("NotAdult", "ApprovableAmount");
+        System.out.println(String.format("fired rules = %d chars, whole file = %d chars", firedRules.length(), allRules.length()));
+        assertThat(firedRules.length()).isLessThan(allRules.length() / 2);
+    }
+
+    @Test
+    void toolReturnsRulesOfRuleSet() {
+        DroolsExecutorTool tool = new DroolsExecutorTool(0);
+        RuleResult result = tool.executeRulesForRuleSet("student-loan", new LoanApplication(new Person("John", 22), 15000));
+
+        assertThat(tool.getDrlRules("student-loan", result.getFiredRules()))
+                .startsWith("rule StudentApprovableAmount").endsWith("end");
+        // not in the default rule set
+        assertThat(tool.getDrlRules(DroolsExecutorTool.DEFAULT_RULE_SET_ID, result.getFiredRules()))
+                .isEqualTo("// unknown rules: StudentApprovableAmount");
+    }
+}
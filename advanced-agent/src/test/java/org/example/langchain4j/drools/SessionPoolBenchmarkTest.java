@@ -0,0 +1,97 @@
+package org.example.langchain4j.drools;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the throughput of per-call KieSession creation and pooled KieSessions. Doesn't require LLM.
+ */
+class SessionPoolBenchmarkTest {
+
+    private static final int[] CALLERS = {1, 8, 32};
+    private static final int EVALUATIONS_PER_RUN = 20_000;
+    private static final int WARMUP_EVALUATIONS = 5_000;
+
+    private static PrintStream originalOut;
+
+    @BeforeAll
+    static void muteSystemOut() {
+        // executeRules prints every application. Don't let the console dominate the measurement
+        originalOut = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()) {
+            @Override
+            public void println(String x) {
+            }
+        });
+    }
+
+    @AfterAll
+    static void restoreSystemOut() {
+        System.setOut(originalOut);
+    }
+
+    @Test
+    void comparePerCallAndPooledSessions() throws Exception {
+        DroolsExecutorTool perCallTool = new DroolsExecutorTool(0);
+        DroolsExecutorTool pooledTool = new DroolsExecutorTool(8);
+
+        run(perCallTool, 1, WARMUP_EVALUATIONS);
+        run(pooledTool, 1, WARMUP_EVALUATIONS);
+
+        List<String> report = new ArrayList<>();
+        for (int callers : CALLERS) {
+            double perCall = run(perCallTool, callers, EVALUATIONS_PER_RUN);
+            double pooled = run(pooledTool, callers, EVALUATIONS_PER_RUN);
+            report.add(String.format("callers=%2d  per-call=%,10.0f ops/s  pooled=%,10.0f ops/s  ratio=%.2f",
+                                     callers, perCall, pooled, pooled / perCall));
+        }
+
+        report.forEach(originalOut::println);
+    }
+
+    // returns evaluations per second
+    private static double run(DroolsExecutorTool tool, int callers, int evaluations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            int perCaller = evaluations / callers;
+            for (int c = 0; c < callers; c++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perCaller; i++) {
+                        int age = 10 + (i % 60);
+                        int amount = (i % 10) * 1000;
+                        RuleResult result = tool.executeRules(new LoanApplication(new Person("John", age), amount));
+                        assertThat(result.isApproved()).isEqualTo(age >= 18 && amount <= 5000);
+                        assertThat(result.getFiredRules()).hasSize(1);
+                    }
+                    return null;
+                }));
+            }
+            long startTime = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            long elapsed = System.nanoTime() - startTime;
+            return (perCaller * callers) / (elapsed / 1_000_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
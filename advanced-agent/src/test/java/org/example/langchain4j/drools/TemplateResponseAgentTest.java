@@ -0,0 +1,123 @@
+package org.example.langchain4j.drools;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Doesn't require LLM. The LLM agents are replaced by stubs.
+ */
+class TemplateResponseAgentTest {
+
+    @Test
+    void rendersDefinitiveDecisions() {
+        DroolsExecutorTool tool = new DroolsExecutorTool(0);
+
+        LoanApplication highAmount = new LoanApplication(new Person("John", 45), 8000);
+        assertThat(TemplateResponseAgent.render(highAmount, tool.executeRules(highAmount)))
+                .isEqualTo("John, your loan application for $8000 is rejected because the amount is higher than $5000 (rules: HighAmount).");
+
+        LoanApplication approvable = new LoanApplication(new Person("Jane", 30), 3000);
+        assertThat(TemplateResponseAgent.render(approvable, tool.executeRules(approvable)))
+                .startsWith("Jane, your loan application for $3000 is approved because the applicant is an adult");
+
+        LoanApplication notAdult = new LoanApplication(new Person("Bob", 15), 3000);
+        assertThat(TemplateResponseAgent.render(notAdult, tool.executeRules(notAdult)))
+                .contains("is rejected because the applicant is under 18");
+
+        // no rule metadata, e.g. a batch result
+        assertThat(TemplateResponseAgent.render(highAmount, new RuleResult(false, List.of("HighAmount")))).isNull();
+    }
+
+    @Test
+    void handsOffToLlmWhenNotDefinitive() {
+        AtomicInteger llmCalls = new AtomicInteger();
+        TemplateResponseAgent agent = new TemplateResponseAgent(request -> {
+            llmCalls.incrementAndGet();
+            return "free-form answer";
+        }, new DroolsExecutorTool(0));
+
+        assertThat(agent.respond("John, 45, $8000", new LoanApplication(new Person("John", 45), 8000))).contains("rejected");
+        // nothing to evaluate
+        assertThat(agent.respond("What documents do I need?", new LoanApplication())).isEqualTo("free-form answer");
+
+        System.out.println(agent.report());
+        assertThat(llmCalls.get()).isEqualTo(1);
+        assertThat(agent.getTemplated()).isEqualTo(1);
+        assertThat(agent.getFallbacks()).isEqualTo(1);
+    }
+
+    @Test
+    void handsOffFollowUpQuestionsToLlm() {
+        AtomicInteger llmCalls = new AtomicInteger();
+        TemplateResponseAgent agent = new TemplateResponseAgent(request -> {
+            llmCalls.incrementAndGet();
+            return "free-form answer";
+        }, new DroolsExecutorTool(0));
+
+        assertThat(agent.respond("John, 45, $8000 — why, and what amount would be approved?",
+                                 new LoanApplication(new Person("John", 45), 8000))).isEqualTo("free-form answer");
+        // no amount in the request, so the extracted amount is 0
+        assertThat(agent.respond("John is 45. Tell me about loans", new LoanApplication(new Person("John", 45), 0)))
+                .isEqualTo("free-form answer");
+        // an amount the user didn't state
+        assertThat(agent.respond("John is 45 and needs a loan", new LoanApplication(new Person("John", 45), 3000)))
+                .isEqualTo("free-form answer");
+        assertThat(agent.respond("John, 45, requesting $8,000", new LoanApplication(new Person("John", 45), 8000))).contains("rejected");
+        assertThat(agent.respond("Jane is 30 and needs 3k", new LoanApplication(new Person("Jane", 30), 3000))).contains("approved");
+
+        assertThat(llmCalls.get()).isEqualTo(3);
+        assertThat(agent.getTemplated()).isEqualTo(2);
+    }
+
+    @Test
+    void amountIsMatchedAsWholeNumber() {
+        LoanApplication amount800 = new LoanApplication(new Person("John", 45), 800);
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John, 45, $8000", amount800)).isFalse();
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John, 45, $800", amount800)).isTrue();
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John, 45, 800", amount800)).isTrue();
+
+        LoanApplication amount8000 = new LoanApplication(new Person("John", 45), 8000);
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John, 45, $18,000", amount8000)).isFalse();
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John, 45, 18k", amount8000)).isFalse();
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John, 45, 8 thousand", amount8000)).isTrue();
+    }
+
+    @Test
+    void ageIsNotTakenForAmount() {
+        // the extractor took the age for the amount
+        LoanApplication amount45 = new LoanApplication(new Person("John", 45), 45);
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John is 45 and needs a loan", amount45)).isFalse();
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John, 45, $45", amount45)).isTrue();
+        assertThat(TemplateResponseAgent.isPlainEvaluation("John, 45, 45", amount45)).isTrue();
+    }
+
+    @Test
+    void templatedPipelineCostsOneLlmCall() {
+        CountingChatModel model = new CountingChatModel(new ChatModel() {
+            @Override
+            public ChatResponse doChat(ChatRequest chatRequest) {
+                // the extractor is the only LLM agent called
+                return ChatResponse.builder()
+                        .aiMessage(AiMessage.from("{\"applicant\": {\"name\": \"John\", \"age\": 45}, \"amount\": 8000}"))
+                        .build();
+            }
+        });
+
+        String summary = LoanPipelines.templated(model)
+                .approveLoan("Evaluate a loan application for John who is a 45 year old person requesting a loan of $8000.")
+                .result();
+
+        assertThat(summary).contains("rejected", "HighAmount");
+        assertThat(model.getCalls()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,160 @@
+package org.example.langchain4j.drools;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A bounded LRU cache of rule decisions keyed on the fact fields the loan rules read: applicant age and amount.
+ * <p>
+ * The entries are split into stripes by key, each one an LRU map with its own lock, so concurrent evaluations
+ * rarely wait for each other. The least recently used entry is evicted per stripe, so the LRU order is approximate
+ * across stripes. A small cache has a single stripe and an exact LRU order.
+ * <p>
+ * Valid only while the rules depend on nothing else. All entries are dropped when the KieBase version changes.
+ *
+ * @param <V> the decision, e.g. approved or not
+ */
+public class DecisionCache<V> {
+
+    private static final int MAX_STRIPES = 16;
+    // fewer entries per stripe would make the eviction order too far from LRU
+    private static final int MIN_STRIPE_SIZE = 64;
+
+    private final int maxSize;
+    private final Stripe<V>[] stripes;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // the version of the cached decisions
+    private final AtomicReference<Object> kieBaseVersion = new AtomicReference<>();
+
+    @SuppressWarnings("unchecked")
+    public DecisionCache(int maxSize) {
+        this.maxSize = maxSize;
+        int stripeCount = Math.min(MAX_STRIPES, Math.max(1, Integer.highestOneBit(maxSize / MIN_STRIPE_SIZE)));
+        int stripeSize = (maxSize + stripeCount - 1) / stripeCount;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(stripeSize, evictions);
+        }
+    }
+
+    /**
+     * @param kieBaseVersion identifies the rules which make the decision. A different one drops all entries
+     * @return null on a miss
+     */
+    public V get(Object kieBaseVersion, int age, int amount) {
+        invalidateIfChanged(kieBaseVersion);
+        long key = key(age, amount);
+        Stripe<V> stripe = stripeOf(key);
+        V decision;
+        synchronized (stripe) {
+            // null if another version was swapped in meanwhile
+            decision = kieBaseVersion.equals(this.kieBaseVersion.get()) ? stripe.get(key) : null;
+        }
+        (decision != null ? hits : misses).incrementAndGet();
+        return decision;
+    }
+
+    public void put(Object kieBaseVersion, int age, int amount, V decision) {
+        invalidateIfChanged(kieBaseVersion);
+        long key = key(age, amount);
+        Stripe<V> stripe = stripeOf(key);
+        synchronized (stripe) {
+            // checked under the stripe lock, which the invalidation takes to clear the stripe, so the decision of
+            // a replaced version is either dropped here or cleared after
+            if (kieBaseVersion.equals(this.kieBaseVersion.get())) {
+                stripe.put(key, decision);
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public String report() {
+        return String.format("DecisionCache{size=%d/%d, stripes=%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, invalidations=%d}",
+                             size(), maxSize, stripes.length, getHits(), getMisses(), getHitRate() * 100, getEvictions(), getInvalidations());
+    }
+
+    // The thread which swaps the version in clears every stripe at once, so the decisions of the previous version
+    // don't keep their LRU slots until their stripe is used again
+    private void invalidateIfChanged(Object kieBaseVersion) {
+        Object current = this.kieBaseVersion.get();
+        if (!kieBaseVersion.equals(current) && this.kieBaseVersion.compareAndSet(current, kieBaseVersion)) {
+            if (current != null) {
+                invalidations.incrementAndGet();
+            }
+            for (Stripe<V> stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.clear();
+                }
+            }
+        }
+    }
+
+    private Stripe<V> stripeOf(long key) {
+        // spreads the age and amount bits over the low bits which select the stripe
+        int hash = Long.hashCode(key) * 0x9E3779B9;
+        return stripes[(hash ^ (hash >>> 16)) & (stripes.length - 1)];
+    }
+
+    private static long key(int age, int amount) {
+        return ((long) age << 32) | (amount & 0xFFFFFFFFL);
+    }
+
+    // access order, so the eldest entry is the least recently used. Guarded by itself
+    private static final class Stripe<V> extends LinkedHashMap<Long, V> {
+
+        private final int maxSize;
+        private final AtomicLong evictions;
+
+        private Stripe(int maxSize, AtomicLong evictions) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, V> eldest) {
+            if (size() > maxSize) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
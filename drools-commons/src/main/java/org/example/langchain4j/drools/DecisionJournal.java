@@ -0,0 +1,291 @@
+package org.example.langchain4j.drools;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Records rule decisions to rolling JSONL files without blocking the evaluation.
+ * <p>
+ * Evaluations put records into a lock-free bounded ring buffer. A background thread drains it and writes the records
+ * in batches. When the buffer is full, records are dropped and counted rather than slowing down the evaluations.
+ * A file is rolled over to the next one when it exceeds maxFileBytes. When a write fails, the batch is retried in
+ * a new file on the next flush.
+ */
+public class DecisionJournal implements AutoCloseable {
+
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int BATCH_SIZE = 1024;
+
+    private final Path directory;
+    private final String name;
+    private final long maxFileBytes;
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final int mask;
+    // next slot to claim by the evaluations
+    private final AtomicLong tail = new AtomicLong();
+    // next slot to read by the writer. Written only by the writer thread
+    private volatile long head;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private volatile String lastError;
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    private OutputStream out;
+    private long fileBytes;
+    private volatile int fileIndex;
+
+    /**
+     * @param capacity size of the ring buffer. Rounded up to a power of 2
+     */
+    public DecisionJournal(Path directory, String name, int capacity, long maxFileBytes) {
+        this.directory = directory;
+        this.name = name;
+        this.maxFileBytes = maxFileBytes;
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create journal directory: " + directory, e);
+        }
+        writerThread = new Thread(this::writeLoop, "drools-journal-" + name);
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Called by the evaluation. Doesn't block or do I/O.
+     *
+     * The fields of the application are passed by value, because the application may be changed after the evaluation.
+     *
+     * @param applicant null if the application has no applicant
+     * @param age -1 if the application has no applicant
+     * @param firedRules called on the writer thread, e.g. to resolve the rule names from their indexes there. May be null
+     * @return false if the buffer is full and the record is dropped
+     */
+    public boolean record(String applicant, int age, int amount, boolean approved, Supplier<List<String>> firedRules,
+                          String kieBaseVersion, long latencyNanos) {
+        Entry entry = new Entry(System.currentTimeMillis(), applicant, age, amount, approved, firedRules,
+                                kieBaseVersion, latencyNanos / 1_000);
+        while (true) {
+            long claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                dropped.incrementAndGet();
+                return false;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                slots.lazySet((int) (claimed & mask), entry);
+                return true;
+            }
+        }
+    }
+
+    public long getWritten() {
+        return written.get();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    // number of failed writes. The records of a failed write are retried, so they are not lost unless the journal is closed
+    public long getErrors() {
+        return errors.get();
+    }
+
+    // null if no write failed
+    public String getLastError() {
+        return lastError;
+    }
+
+    // the file currently written to
+    public Path getCurrentFile() {
+        return directory.resolve(name + "-" + fileIndex + ".jsonl");
+    }
+
+    /**
+     * Writes the buffered records and closes the file.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        boolean failing = false;
+        while (true) {
+            boolean closing = closed;
+            try {
+                // a batch which failed to be written is retried first
+                while (!batch.isEmpty() || drain(batch) > 0) {
+                    write(batch);
+                    batch.clear();
+                }
+                if (out != null) {
+                    out.flush();
+                }
+                failing = false;
+            } catch (IOException e) {
+                errors.incrementAndGet();
+                lastError = e.toString();
+                if (!failing) {
+                    System.err.println("*** DecisionJournal: failed to write " + getCurrentFile() + ". Retrying in a new file. " + e);
+                    failing = true;
+                }
+                // the next write opens a new file
+                closeFile();
+                if (closing) {
+                    dropped.addAndGet(batch.size());
+                }
+            }
+            if (closing) {
+                break;
+            }
+            LockSupport.parkNanos(FLUSH_INTERVAL_NANOS);
+        }
+        closeFile();
+    }
+
+    private int drain(List<Entry> batch) {
+        long next = head;
+        while (batch.size() < BATCH_SIZE) {
+            int index = (int) (next & mask);
+            Entry entry = slots.get(index);
+            if (entry == null) {
+                // not claimed yet, or claimed but not published yet
+                break;
+            }
+            slots.lazySet(index, null);
+            batch.add(entry);
+            next++;
+        }
+        // publishes the free slots to the evaluations
+        head = next;
+        return batch.size();
+    }
+
+    private void write(List<Entry> batch) throws IOException {
+        StringBuilder sb = new StringBuilder(batch.size() * 200);
+        for (Entry entry : batch) {
+            entry.appendJson(sb);
+            sb.append('\n');
+        }
+        byte[] bytes = sb.toString().getBytes(StandardCharsets.UTF_8);
+        if (out == null || fileBytes > 0 && fileBytes + bytes.length > maxFileBytes) {
+            rollOver();
+        }
+        out.write(bytes);
+        fileBytes += bytes.length;
+        written.addAndGet(batch.size());
+    }
+
+    private void rollOver() throws IOException {
+        if (out != null) {
+            closeFile();
+            fileIndex++;
+        }
+        Path file = getCurrentFile();
+        // continue after the files of a previous run
+        while (Files.exists(file)) {
+            fileIndex++;
+            file = getCurrentFile();
+        }
+        out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+        fileBytes = 0;
+    }
+
+    private void closeFile() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            out = null;
+        }
+    }
+
+    /**
+     * @param age -1 if the application has no applicant
+     */
+    public record Entry(long timestampMillis, String applicant, int age, int amount, boolean approved,
+                        Supplier<List<String>> firedRulesSupplier, String kieBaseVersion, long latencyMicros) {
+
+        void appendJson(StringBuilder sb) {
+            List<String> firedRules = firedRulesSupplier != null ? firedRulesSupplier.get() : null;
+            sb.append("{\"timestamp\":").append(timestampMillis);
+            sb.append(",\"applicant\":");
+            appendString(sb, applicant);
+            sb.append(",\"age\":").append(age);
+            sb.append(",\"amount\":").append(amount);
+            sb.append(",\"approved\":").append(approved);
+            sb.append(",\"firedRules\":");
+            if (firedRules == null) {
+                sb.append("null");
+            } else {
+                sb.append('[');
+                for (int i = 0; i < firedRules.size(); i++) {
+                    if (i > 0) {
+                        sb.append(',');
+                    }
+                    appendString(sb, firedRules.get(i));
+                }
+                sb.append(']');
+            }
+            sb.append(",\"kieBaseVersion\":");
+            appendString(sb, kieBaseVersion);
+            sb.append(",\"latencyMicros\":").append(latencyMicros);
+            sb.append('}');
+        }
+
+        private static void appendString(StringBuilder sb, String value) {
+            if (value == null) {
+                sb.append("null");
+                return;
+            }
+            sb.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> sb.append("\\\"");
+                    case '\\' -> sb.append("\\\\");
+                    case '\n' -> sb.append("\\n");
+                    case '\r' -> sb.append("\\r");
+                    case '\t' -> sb.append("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            sb.append(String.format("\\u%04x", (int) c));
+                        } else {
+                            sb.append(c);
+                        }
+                    }
+                }
+            }
+            sb.append('"');
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.langchain4j.drools;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.kie.api.KieBase;
+
+/**
+ * Caches compiled KieBases by a content hash of their DRL files, so identical rule sets are compiled once per JVM and shared.
+ * KieBases prebuilt by the kie-maven-plugin are registered too, keyed by KieBase name and ReleaseId, so both paths
+ * are in the same report and a KieBase is loaded once whichever path asks for it.
+ */
+public class KieBaseRegistry {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> builds = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    // runs full GCs around each build, so it is for diagnostics only
+    private final boolean measureHeap;
+
+    /**
+     * @param measureHeap true to record the heap retained by each KieBase. Each build then runs two full GCs
+     */
+    public KieBaseRegistry(boolean measureHeap) {
+        this.measureHeap = measureHeap;
+    }
+
+    /**
+     * @param drlFiles DRL contents keyed by resource path
+     * @param builder compiles the DRL files. Called only when no KieBase is registered or being built for the same contents
+     */
+    public KieBase getOrBuild(Map<String, byte[]> drlFiles, Function<Map<String, byte[]>, KieBase> builder) {
+        return getOrCreate(contentHash(drlFiles), Set.copyOf(drlFiles.keySet()), () -> builder.apply(drlFiles));
+    }
+
+    /**
+     * @param kieBaseName the KieBase in the kmodule.xml of the KieModule
+     * @param releaseId   the ReleaseId of the KieModule, e.g. of the classpath container
+     * @param loader      gets the prebuilt KieBase. Called only when it isn't registered or being loaded
+     */
+    public KieBase getOrLoad(String kieBaseName, String releaseId, Supplier<KieBase> loader) {
+        return getOrCreate(kieBaseName + "@" + releaseId, Set.of(kieBaseName), loader);
+    }
+
+    private KieBase getOrCreate(String key, Set<String> resources, Supplier<KieBase> builder) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            hits.incrementAndGet();
+            return entry.kieBase();
+        }
+        // concurrent builds of the same rule set wait for the first one. Different rule sets are built in parallel
+        CompletableFuture<Entry> build = new CompletableFuture<>();
+        CompletableFuture<Entry> inProgress = builds.putIfAbsent(key, build);
+        if (inProgress != null) {
+            hits.incrementAndGet();
+            return inProgress.join().kieBase();
+        }
+        try {
+            entry = entries.get(key);
+            if (entry != null) {
+                // registered after the first lookup
+                hits.incrementAndGet();
+            } else {
+                misses.incrementAndGet();
+                entry = build(key, resources, builder);
+                entries.put(key, entry);
+            }
+            build.complete(entry);
+            return entry.kieBase();
+        } catch (RuntimeException e) {
+            build.completeExceptionally(e);
+            throw e;
+        } finally {
+            builds.remove(key);
+        }
+    }
+
+    private Entry build(String key, Set<String> resources, Supplier<KieBase> builder) {
+        long usedBefore = measureHeap ? usedHeapAfterGc() : 0;
+        long start = System.nanoTime();
+        KieBase kieBase = builder.get();
+        long buildTimeMillis = (System.nanoTime() - start) / 1_000_000;
+        long retainedBytes = measureHeap ? Math.max(0, usedHeapAfterGc() - usedBefore) : -1;
+        return new Entry(key, resources, kieBase, retainedBytes, buildTimeMillis);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public Collection<Entry> getEntries() {
+        return List.copyOf(entries.values());
+    }
+
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("KieBaseRegistry{hits=").append(getHits()).append(", misses=").append(getMisses()).append('}');
+        for (Entry entry : entries.values()) {
+            sb.append(System.lineSeparator()).append("  ").append(entry);
+        }
+        return sb.toString();
+    }
+
+    public static String contentHash(Map<String, byte[]> drlFiles) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            // sorted, so the hash doesn't depend on the order of the files
+            for (Map.Entry<String, byte[]> drlFile : new TreeMap<>(drlFiles).entrySet()) {
+                digest.update(drlFile.getKey().getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                digest.update(drlFile.getValue());
+                digest.update((byte) 0);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    // Approximation: other threads allocating during the build, including parallel builds, skew the result
+    private static long usedHeapAfterGc() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * @param key           the content hash of the DRL files, or kieBaseName@releaseId for a prebuilt KieBase
+     * @param retainedBytes approximate heap retained by the KieBase, measured as the used heap growth across the build.
+     *                      -1 unless the registry measures the heap
+     */
+    public record Entry(String key, Set<String> resources, KieBase kieBase, long retainedBytes, long buildTimeMillis) {
+
+        @Override
+        public String toString() {
+            return "Entry{" +
+                    "key=" + (key.length() == 64 ? key.substring(0, 12) : key) +
+                    ", resources=" + resources +
+                    ", retainedBytes=" + retainedBytes +
+                    ", buildTimeMillis=" + buildTimeMillis +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionCacheTest {
+
+    @Test
+    void leastRecentlyUsedDecisionIsEvicted() {
+        DecisionCache<Boolean> cache = new DecisionCache<>(2);
+        cache.put("1.0.0", 45, 3000, true);
+        cache.put("1.0.0", 45, 8000, false);
+
+        // 45/3000 is used more recently than 45/8000
+        assertThat(cache.get("1.0.0", 45, 3000)).isTrue();
+        cache.put("1.0.0", 16, 3000, false);
+
+        assertThat(cache.get("1.0.0", 45, 8000)).isNull();
+        assertThat(cache.get("1.0.0", 45, 3000)).isTrue();
+        assertThat(cache.get("1.0.0", 16, 3000)).isFalse();
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.getEvictions()).isEqualTo(1);
+        assertThat(cache.getHits()).isEqualTo(3);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.getHitRate()).isEqualTo(0.75);
+    }
+
+    @Test
+    void newKieBaseVersionDropsDecisions() {
+        DecisionCache<Boolean> cache = new DecisionCache<>(10);
+        cache.put("1.0.0", 45, 8000, false);
+
+        assertThat(cache.get("1.0.1", 45, 8000)).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void newKieBaseVersionClearsEveryStripe() {
+        DecisionCache<Boolean> cache = new DecisionCache<>(1024);
+        for (int amount = 0; amount < 1000; amount++) {
+            cache.put("1.0.0", 45, amount, true);
+        }
+        assertThat(cache.size()).isEqualTo(1000);
+
+        // a single lookup with the new version drops the decisions of the previous one in all the stripes
+        assertThat(cache.get("1.0.1", 45, 0)).isNull();
+        assertThat(cache.size()).isZero();
+
+        // the decision of an evaluation which started on the previous version isn't kept
+        cache.put("1.0.1", 45, 1, true);
+        assertThat(cache.get("1.0.1", 45, 1)).isTrue();
+        assertThat(cache.getInvalidations()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentEvaluationsStayWithinMaxSize() throws Exception {
+        int maxSize = 1024;
+        int threads = 8;
+        int lookupsPerThread = 100_000;
+        DecisionCache<Boolean> cache = new DecisionCache<>(maxSize);
+        assertThat(cache.report()).contains("stripes=16");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < lookupsPerThread; i++) {
+                        int amount = (i * 31 + seed) % 4096;
+                        if (cache.get("1.0.0", 45, amount) == null) {
+                            cache.put("1.0.0", 45, amount, amount <= 2048);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        System.out.println(cache.report());
+        assertThat(cache.getHits() + cache.getMisses()).isEqualTo((long) threads * lookupsPerThread);
+        assertThat(cache.size()).isLessThanOrEqualTo(maxSize);
+        assertThat(cache.getEvictions()).isPositive();
+    }
+}
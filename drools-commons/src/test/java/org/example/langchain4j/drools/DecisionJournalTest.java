@@ -0,0 +1,108 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DecisionJournalTest {
+
+    private static final int THREADS = 8;
+
+    @TempDir
+    Path journalDirectory;
+
+    @Test
+    void recordsFromManyThreadsAreWrittenToRollingFiles() throws Exception {
+        DecisionJournal journal = new DecisionJournal(journalDirectory, "test", 1 << 16, 64 * 1024);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        int amount = i;
+                        while (!journal.record("John \"Jr\"", 45, amount, true, () -> List.of("ApprovableAmount"), "1.0.0", 12_345)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            journal.close();
+        }
+
+        List<String> lines = readLines();
+        assertThat(lines).hasSize(THREADS * 1000);
+        assertThat(journal.getWritten()).isEqualTo(THREADS * 1000);
+        assertThat(lines.get(0)).contains("\"applicant\":\"John \\\"Jr\\\"\"", "\"age\":45", "\"approved\":true",
+                                          "\"firedRules\":[\"ApprovableAmount\"]", "\"kieBaseVersion\":\"1.0.0\"", "\"latencyMicros\":12");
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            assertThat(files.count()).isGreaterThan(1);
+        }
+    }
+
+    @Test
+    void failedWriteIsRetriedInNewFile() throws Exception {
+        // a file per batch, so every batch opens a file
+        DecisionJournal journal = new DecisionJournal(journalDirectory, "test", 16, 1);
+        try {
+            journal.record("John", 45, 3000, true, null, "1.0.0", 0);
+            awaitUntil(() -> journal.getWritten() == 1);
+
+            deleteJournalDirectory();
+            journal.record("Jane", 45, 4000, true, null, "1.0.0", 0);
+            awaitUntil(() -> journal.getErrors() > 0);
+            assertThat(journal.getLastError()).contains(journalDirectory.toString());
+
+            Files.createDirectories(journalDirectory);
+            awaitUntil(() -> journal.getWritten() == 2);
+        } finally {
+            journal.close();
+        }
+
+        assertThat(readLines()).singleElement().satisfies(line -> assertThat(line).contains("\"applicant\":\"Jane\""));
+        assertThat(journal.getDropped()).isZero();
+    }
+
+    private void deleteJournalDirectory() throws Exception {
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(journalDirectory);
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private List<String> readLines() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(journalDirectory)) {
+            for (Path file : files.sorted().toList()) {
+                lines.addAll(Files.readAllLines(file));
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.langchain4j.drools;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KieBaseRegistryTest {
+
+    @Test
+    void contentHashDependsOnContentsNotOrder() {
+        byte[] a = "rule A when then end".getBytes();
+        byte[] b = "rule B when then end".getBytes();
+
+        assertThat(KieBaseRegistry.contentHash(Map.of("a.drl", a, "b.drl", b)))
+                .isEqualTo(KieBaseRegistry.contentHash(Map.of("b.drl", b, "a.drl", a)))
+                .isNotEqualTo(KieBaseRegistry.contentHash(Map.of("a.drl", b, "b.drl", a)));
+    }
+
+    @Test
+    void prebuiltKieBaseIsLoadedOncePerReleaseId() {
+        KieBaseRegistry registry = new KieBaseRegistry(false);
+        AtomicInteger loads = new AtomicInteger();
+
+        KieBase first = registry.getOrLoad("loanKieBase", "org.example:loan:1.0.0", () -> newKieBase(loads));
+        KieBase second = registry.getOrLoad("loanKieBase", "org.example:loan:1.0.0", () -> newKieBase(loads));
+        KieBase other = registry.getOrLoad("loanKieBase", "org.example:loan:1.0.1", () -> newKieBase(loads));
+
+        assertThat(second).isSameAs(first);
+        assertThat(other).isNotSameAs(first);
+        assertThat(loads).hasValue(2);
+        assertThat(registry.getHits()).isEqualTo(1);
+        assertThat(registry.getEntries()).extracting(KieBaseRegistry.Entry::key)
+                .containsExactlyInAnyOrder("loanKieBase@org.example:loan:1.0.0", "loanKieBase@org.example:loan:1.0.1");
+    }
+
+    // the registry only stores the KieBase, so a stub is enough
+    private static KieBase newKieBase(AtomicInteger loads) {
+        loads.incrementAndGet();
+        return (KieBase) Proxy.newProxyInstance(KieBase.class.getClassLoader(), new Class<?>[] {KieBase.class},
+                                                (proxy, method, args) -> method.getName().equals("equals") ? proxy == args[0] : null);
+    }
+}
@@ -0,0 +1,149 @@
+package org.example.langchain4j.drools;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+import dev.langchain4j.agentic.Agent;
+import dev.langchain4j.service.V;
+import org.example.langchain4j.drools.domain.LoanApplication;
+
+/**
+ * A bounded LRU cache of extracted LoanApplications in front of another extractor, keyed on the normalized request
+ * text, so retries and templated requests skip the extraction LLM call. NonAI agent.
+ * <p>
+ * Requests which differ only in casing, whitespace, trailing punctuation or number formatting ("$8,000.00" and
+ * "$8000") share an entry. Entries expire ttl after they were extracted.
+ */
+public class CachingLoanApplicationExtractor implements LoanApplicationExtractor {
+
+    // thousands separators: "8,000" -> "8000"
+    private static final Pattern THOUSANDS_SEPARATOR = Pattern.compile("(?<=\\d),(?=\\d{3}(?!\\d))");
+    // zero decimals: "8000.00" -> "8000"
+    private static final Pattern ZERO_DECIMALS = Pattern.compile("(?<=\\d)\\.0+(?!\\d)");
+    // "$ 8000" -> "$8000"
+    private static final Pattern CURRENCY_SPACE = Pattern.compile("\\$\\s+(?=\\d)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s.!?]+$");
+
+    private final LoanApplicationExtractor delegate;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    // access order, so the eldest entry is the least recently used. Guarded by this
+    private final Map<String, Entry> entries;
+
+    public CachingLoanApplicationExtractor(LoanApplicationExtractor delegate, int maxSize, long ttl, TimeUnit unit) {
+        this(delegate, maxSize, unit.toNanos(ttl), System::nanoTime);
+    }
+
+    CachingLoanApplicationExtractor(LoanApplicationExtractor delegate, int maxSize, long ttlNanos, LongSupplier nanoClock) {
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > CachingLoanApplicationExtractor.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    @Agent(description = "Extract a LoanApplication from user request.", outputKey = "loanApplication")
+    public LoanApplication extract(@V("request") String request) {
+        if (request == null) {
+            return delegate.extract(request);
+        }
+        String key = normalize(request);
+        LoanApplication cached = get(key);
+        if (cached != null) {
+            return copy(cached);
+        }
+        // concurrent misses on the same request call the delegate more than once, the last one is cached
+        LoanApplication loanApplication = delegate.extract(request);
+        if (loanApplication != null) {
+            put(key, copy(loanApplication));
+        }
+        return loanApplication;
+    }
+
+    static String normalize(String request) {
+        String normalized = Normalizer.normalize(request, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        normalized = THOUSANDS_SEPARATOR.matcher(normalized).replaceAll("");
+        normalized = ZERO_DECIMALS.matcher(normalized).replaceAll("");
+        normalized = CURRENCY_SPACE.matcher(normalized).replaceAll("\\$");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(normalized.strip()).replaceAll("");
+    }
+
+    private synchronized LoanApplication get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && nanoClock.getAsLong() - entry.expiresAt() >= 0) {
+            entries.remove(key);
+            expirations.incrementAndGet();
+            entry = null;
+        }
+        (entry != null ? hits : misses).incrementAndGet();
+        return entry != null ? entry.loanApplication() : null;
+    }
+
+    private synchronized void put(String key, LoanApplication loanApplication) {
+        entries.put(key, new Entry(loanApplication, nanoClock.getAsLong() + ttlNanos));
+    }
+
+    // the rules set approved on the returned application, so the cached one is never handed out
+    private static LoanApplication copy(LoanApplication loanApplication) {
+        return new LoanApplication(loanApplication.getApplicant(), loanApplication.getAmount());
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+        return expirations.get();
+    }
+
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public String report() {
+        return String.format("CachingLoanApplicationExtractor{size=%d/%d, hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, expirations=%d}",
+                             size(), maxSize, getHits(), getMisses(), getHitRate() * 100, getEvictions(), getExpirations());
+    }
+
+    private record Entry(LoanApplication loanApplication, long expiresAt) {
+    }
+}
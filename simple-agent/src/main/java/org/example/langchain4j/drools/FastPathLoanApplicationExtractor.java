@@ -0,0 +1,186 @@
+package org.example.langchain4j.drools;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import dev.langchain4j.agentic.Agent;
+import dev.langchain4j.service.V;
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+
+/**
+ * Extracts a LoanApplication from common phrasings, e.g. "John, 45, requesting $8000", with regular expressions
+ * instead of an LLM round trip. NonAI agent.
+ * <p>
+ * The request is parsed only when it names exactly one applicant, one age and one amount. Otherwise, e.g. when two
+ * people or two amounts are mentioned, it is handed off to the LLM extractor.
+ */
+public class FastPathLoanApplicationExtractor implements LoanApplicationExtractor {
+
+    private static final int MAX_AGE = 130;
+
+    // "for John", "my name is John", "applicant: John"
+    private static final Pattern NAME_AFTER_KEYWORD = Pattern.compile(
+            "\\b(?i:for|named|name is|i am|i'm|this is|applicant:?)\\s+([A-Z][a-z]+)\\b");
+    // "John is 45", "John wants $8000" at the start
+    private static final Pattern NAME_FIRST = Pattern.compile(
+            "^\\s*([A-Z][a-z]+)\\s+(?i:is|who|wants|needs|requests|requesting|asks|aged?)\\b");
+    // "John, 45," and "John (45)" anywhere, so a second applicant is noticed
+    private static final Pattern NAME_BEFORE_AGE = Pattern.compile(
+            "\\b([A-Z][a-z]+)\\s*(?:,\\s*\\d{1,3}\\s*(?:,|$)|\\(\\s*\\d{1,3}\\s*\\))");
+
+    // "45 years old", "45-year-old", "45 yrs", "45 yo"
+    private static final Pattern AGE_WITH_UNIT = Pattern.compile(
+            "\\b(\\d{1,3})\\s*-?\\s*(?:years?|yrs?|yo)\\b", Pattern.CASE_INSENSITIVE);
+    // "aged 45", "age: 45", "age of 45"
+    private static final Pattern AGE_AFTER_KEYWORD = Pattern.compile(
+            "\\bage(?:d|\\s+of)?\\s*:?\\s*(\\d{1,3})\\b", Pattern.CASE_INSENSITIVE);
+    // "John, 45," and "John (45)"
+    private static final Pattern AGE_AFTER_NAME = Pattern.compile(
+            "\\b[A-Z][a-z]+\\s*(?:,\\s*(\\d{1,3})\\s*(?:,|$)|\\(\\s*(\\d{1,3})\\s*\\))");
+
+    // "$8000", "$8,000", "$8.5k", "$8 thousand"
+    private static final Pattern AMOUNT_DOLLAR_SIGN = Pattern.compile(
+            "\\$\\s*(\\d[\\d,]*(?:\\.\\d+)?)\\s*(k|thousand)?\\b", Pattern.CASE_INSENSITIVE);
+    // "8000 dollars", "8,000 USD", "8k dollars"
+    private static final Pattern AMOUNT_WITH_CURRENCY = Pattern.compile(
+            "\\b(\\d[\\d,]*(?:\\.\\d+)?)\\s*(k|thousand)?\\s*(?:dollars?|usd)\\b", Pattern.CASE_INSENSITIVE);
+    // "loan of 8000", "requesting 8000", "borrow 8k"
+    private static final Pattern AMOUNT_AFTER_KEYWORD = Pattern.compile(
+            "\\b(?:loan of|requesting|request of|borrow|amount(?: of)?:?)\\s*(\\d[\\d,]*(?:\\.\\d+)?)\\s*(k|thousand)?\\b(?!\\s*(?:years?|yrs?|yo)\\b)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final LoanApplicationExtractor fallback;
+
+    private final boolean consoleLog = DroolsUtils.isConsoleLogEnabled();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong fastPathNanos = new AtomicLong();
+    private final AtomicLong fallbackNanos = new AtomicLong();
+
+    /**
+     * @param fallback the LLM extractor, called when the request isn't parsed
+     */
+    public FastPathLoanApplicationExtractor(LoanApplicationExtractor fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    @Agent(description = "Extract a LoanApplication from user request.", outputKey = "loanApplication")
+    public LoanApplication extract(@V("request") String request) {
+        long start = System.nanoTime();
+        LoanApplication loanApplication = parse(request);
+        if (loanApplication != null) {
+            fastPathNanos.addAndGet(System.nanoTime() - start);
+            hits.incrementAndGet();
+            if (consoleLog) {
+                System.out.println("*** FastPathLoanApplicationExtractor.extract: parsed " + loanApplication);
+            }
+            return loanApplication;
+        }
+        loanApplication = fallback.extract(request);
+        fallbackNanos.addAndGet(System.nanoTime() - start);
+        fallbacks.incrementAndGet();
+        return loanApplication;
+    }
+
+    /**
+     * @return null if the request doesn't name exactly one applicant, one age and one amount
+     */
+    static LoanApplication parse(String request) {
+        if (request == null) {
+            return null;
+        }
+        Set<String> names = new LinkedHashSet<>();
+        collect(NAME_AFTER_KEYWORD, request, names);
+        collect(NAME_FIRST, request, names);
+        collect(NAME_BEFORE_AGE, request, names);
+
+        Set<String> ages = new LinkedHashSet<>();
+        collect(AGE_WITH_UNIT, request, ages);
+        collect(AGE_AFTER_KEYWORD, request, ages);
+        collect(AGE_AFTER_NAME, request, ages);
+
+        Set<Integer> amounts = new LinkedHashSet<>();
+        if (!collectAmounts(AMOUNT_DOLLAR_SIGN, request, amounts)
+                || !collectAmounts(AMOUNT_WITH_CURRENCY, request, amounts)
+                || !collectAmounts(AMOUNT_AFTER_KEYWORD, request, amounts)) {
+            return null;
+        }
+
+        if (names.size() != 1 || ages.size() != 1 || amounts.size() != 1) {
+            return null;
+        }
+        int age = Integer.parseInt(ages.iterator().next());
+        int amount = amounts.iterator().next();
+        if (age > MAX_AGE || amount <= 0) {
+            return null;
+        }
+        return new LoanApplication(new Person(names.iterator().next(), age), amount);
+    }
+
+    // the first non-null group of each match
+    private static void collect(Pattern pattern, String request, Set<String> values) {
+        Matcher matcher = pattern.matcher(request);
+        while (matcher.find()) {
+            for (int i = 1; i <= matcher.groupCount(); i++) {
+                if (matcher.group(i) != null) {
+                    values.add(matcher.group(i));
+                    break;
+                }
+            }
+        }
+    }
+
+    // false if an amount doesn't fit in an int
+    private static boolean collectAmounts(Pattern pattern, String request, Set<Integer> amounts) {
+        Matcher matcher = pattern.matcher(request);
+        while (matcher.find()) {
+            BigDecimal amount = new BigDecimal(matcher.group(1).replace(",", ""));
+            if (matcher.group(2) != null) {
+                amount = amount.multiply(BigDecimal.valueOf(1000));
+            }
+            try {
+                amounts.add(amount.setScale(0, RoundingMode.HALF_UP).intValueExact());
+            } catch (ArithmeticException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    public double getHitRate() {
+        long hits = getHits();
+        long total = hits + getFallbacks();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    // hits times the mean latency of the LLM extractor, less the time spent parsing. 0 until the LLM extractor was called once
+    public long getLatencySavedNanos() {
+        long fallbacks = getFallbacks();
+        return fallbacks == 0 ? 0 : getHits() * (fallbackNanos.get() / fallbacks) - fastPathNanos.get();
+    }
+
+    public String report() {
+        long hits = getHits();
+        long fallbacks = getFallbacks();
+        return String.format("FastPathLoanApplicationExtractor{hits=%d, fallbacks=%d, hitRate=%.1f%%, fastPathMean=%.1fus, fallbackMean=%.1fms, saved=%dms}",
+                             hits, fallbacks, getHitRate() * 100,
+                             hits == 0 ? 0 : fastPathNanos.get() / 1000.0 / hits,
+                             fallbacks == 0 ? 0 : fallbackNanos.get() / 1_000_000.0 / fallbacks,
+                             getLatencySavedNanos() / 1_000_000);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.langchain4j.drools;
+
+import dev.langchain4j.agentic.AgenticServices;
+import dev.langchain4j.agentic.supervisor.SupervisorResponseStrategy;
+import dev.langchain4j.model.chat.ChatModel;
+
+/**
+ * Two topologies of the same loan evaluation, behind the same {@link LoanAssistant} interface.
+ * <p>
+ * The supervisor asks the planner model for the next agent at every step and writes a summary at the end,
+ * while the sequence always runs extractor -> rule engine -> summarizer, so it costs only the extraction
+ * and the summary LLM calls.
+ */
+public final class LoanPipelines {
+
+    private LoanPipelines() {
+    }
+
+    public static LoanApplicationExtractor extractor(ChatModel chatModel) {
+        return AgenticServices.agentBuilder(LoanApplicationExtractor.class)
+                .chatModel(chatModel)
+                .outputKey("loanApplication")
+                .build();
+    }
+
+    /**
+     * @param extractor e.g. {@link #extractor(ChatModel)}, or a {@link FastPathLoanApplicationExtractor} to skip
+     *                  the extraction LLM call too
+     */
+    public static LoanAssistant sequence(LoanApplicationExtractor extractor, ChatModel chatModel) {
+        LoanSummarizer summarizer = AgenticServices.agentBuilder(LoanSummarizer.class)
+                .chatModel(chatModel)
+                .outputKey("summary")
+                .build();
+
+        return AgenticServices.sequenceBuilder(LoanAssistant.class)
+                .subAgents(extractor, SimpleDroolsAgent.getInstance(), summarizer)
+                .outputKey("summary")
+                .build();
+    }
+
+    // same as DroolsAgentTest
+    public static LoanAssistant supervisor(LoanApplicationExtractor extractor, ChatModel plannerModel) {
+        return AgenticServices.supervisorBuilder(LoanAssistant.class)
+                .chatModel(plannerModel)
+                .responseStrategy(SupervisorResponseStrategy.SUMMARY)
+                .subAgents(extractor, SimpleDroolsAgent.getInstance())
+                .supervisorContext("When writing a final response summary, use a word 'approved' or 'rejected' to indicate loan application status.")
+                .outputKey("summary")
+                .build();
+    }
+}
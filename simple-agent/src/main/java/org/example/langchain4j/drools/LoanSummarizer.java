@@ -0,0 +1,19 @@
+package org.example.langchain4j.drools;
+
+import dev.langchain4j.agentic.Agent;
+import dev.langchain4j.service.UserMessage;
+import dev.langchain4j.service.V;
+import org.example.langchain4j.drools.domain.LoanApplication;
+
+public interface LoanSummarizer {
+
+    @UserMessage("""
+            Write a brief response to the user request about a loan application.
+            Use a word 'approved' or 'rejected' to indicate loan application status.
+            The loan application is: {{loanApplication}}.
+            The rule engine approved it: {{result}}.
+            The user request is: '{{request}}'.
+            """)
+    @Agent("Summarize the loan decision for the user.")
+    String summarize(@V("request") String request, @V("loanApplication") LoanApplication loanApplication, @V("result") boolean result);
+}
@@ -2,10 +2,15 @@ package org.example.langchain4j.drools;
 
 import dev.langchain4j.agentic.Agent;
 import dev.langchain4j.service.V;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import org.example.langchain4j.drools.domain.LoanApplication;
 import org.example.langchain4j.drools.domain.Person;
 import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionsPool;
 import org.kie.internal.utils.KieHelper;
 
 /**
@@ -13,27 +18,162 @@ import org.kie.internal.utils.KieHelper;
  */
 public class SimpleDroolsAgent {
 
+    private static final String KIE_BASE_NAME = "loanKieBase";
+
     private static final SimpleDroolsAgent INSTANCE = new SimpleDroolsAgent();
 
     private KieBase kieBase;
 
+    // null when pooling is disabled
+    private KieSessionsPool sessionsPool;
+
+    // null when the decision cache is disabled
+    private DecisionCache<Boolean> decisionCache;
+
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    private final boolean consoleLog = DroolsUtils.isConsoleLogEnabled();
+
+    // null when the journal is disabled
+    private final DecisionJournal journal = DroolsUtils.createDecisionJournal("simple-drools-agent");
+
+    private final AsyncRuleExecutor asyncExecutor = DroolsUtils.createAsyncRuleExecutor();
+
     private SimpleDroolsAgent() {
-        kieBase = DroolsUtils.createKieBase("loan-application.drl");
+        this(DroolsUtils.getSessionPoolSize(), DroolsUtils.getWarmUpIterations(), DroolsUtils.getDecisionCacheSize());
+    }
+
+    // sessionPoolSize <= 0 disables pooling
+    SimpleDroolsAgent(int sessionPoolSize) {
+        this(sessionPoolSize, 0, 0);
+    }
+
+    // warmUpIterations <= 0 disables warm-up. decisionCacheSize <= 0 disables the decision cache
+    SimpleDroolsAgent(int sessionPoolSize, int warmUpIterations, int decisionCacheSize) {
+        kieBase = DroolsUtils.loadKieBase(KIE_BASE_NAME, "loan-application.drl");
+        sessionsPool = DroolsUtils.createSessionsPool(kieBase, sessionPoolSize);
+        decisionCache = DroolsUtils.createDecisionCache(decisionCacheSize);
+        if (warmUpIterations > 0) {
+            Thread warmUpThread = new Thread(() -> warmUp(warmUpIterations), "drools-warmup");
+            warmUpThread.setDaemon(true);
+            warmUpThread.start();
+        } else {
+            ready.countDown();
+        }
     }
 
     public static SimpleDroolsAgent getInstance() {
         return INSTANCE;
     }
 
+    // false while the warm-up is running. Requests are accepted anyway, but may be slow
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
+
+    // hit rate and other metrics. null when the decision cache is disabled
+    public DecisionCache<Boolean> getDecisionCache() {
+        return decisionCache;
+    }
+
     // Key Point: the return value is boolean. It's not very informative, so the supervisor doesn't provide a great summary.
     @Agent(description = "loan approval rule engine.", outputKey = "result")
     public boolean approve(@V("loanApplication") LoanApplication loanApplication) {
-        System.out.println("*** SimpleDroolsAgent.approve: loanApplication = " + loanApplication);
+        if (consoleLog) {
+            System.out.println("*** SimpleDroolsAgent.approve: loanApplication = " + loanApplication);
+        }
+        if (journal == null) {
+            return decide(loanApplication);
+        }
+        long start = System.nanoTime();
+        boolean approved = decide(loanApplication);
+        // the KieBase never changes here, so the KieBase name identifies the rules
+        DroolsUtils.recordDecision(journal, loanApplication, approved, null, KIE_BASE_NAME, System.nanoTime() - start);
+        return approved;
+    }
+
+    // null when the journal is disabled
+    public DecisionJournal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Same as {@link #approve(LoanApplication)}, but runs on {@link AsyncRuleExecutor} instead of the caller thread.
+     * Completes exceptionally with a RejectedExecutionException when too many evaluations are pending.
+     */
+    public CompletableFuture<Boolean> approveAsync(LoanApplication loanApplication) {
+        return asyncExecutor.submit(() -> approve(loanApplication));
+    }
+
+    // running, queued and rejected async evaluations
+    public AsyncRuleExecutor getAsyncExecutor() {
+        return asyncExecutor;
+    }
+
+    /**
+     * Starts a long-lived session which decides applications as they are offered, instead of a session per call.
+     * The caller owns it and must close it.
+     */
+    public StreamingLoanSession newStreamingSession() {
+        return DroolsUtils.createStreamingSession(kieBase);
+    }
+
+    private boolean decide(LoanApplication loanApplication) {
+        if (decisionCache == null || loanApplication.getApplicant() == null) {
+            return evaluate(loanApplication);
+        }
+        int age = loanApplication.getApplicant().age();
+        int amount = loanApplication.getAmount();
+        // the KieBase never changes here, so it identifies the rules
+        Boolean cached = decisionCache.get(kieBase, age, amount);
+        if (cached != null) {
+            loanApplication.setApproved(cached);
+            return cached;
+        }
+        boolean approved = evaluate(loanApplication);
+        decisionCache.put(kieBase, age, amount, approved);
+        return approved;
+    }
 
-        try (var kieSession = kieBase.newKieSession()) {
+    private boolean evaluate(LoanApplication loanApplication) {
+        try (var kieSession = newKieSession()) {
             kieSession.insert(loanApplication);
             kieSession.fireAllRules();
             return loanApplication.isApproved();
         }
     }
+
+    // Runs synthetic applications through the same code path as approve, so the classes generated
+    // for the executable model are loaded and JIT compiled before the first request
+    private void warmUp(int iterations) {
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (LoanApplication loanApplication : warmUpApplications()) {
+                    evaluate(loanApplication);
+                }
+            }
+            if (consoleLog) {
+                System.out.println("*** SimpleDroolsAgent.warmUp: " + iterations + " iterations in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    // approved, too high amount and not adult
+    private static List<LoanApplication> warmUpApplications() {
+        return List.of(new LoanApplication(new Person("WarmUp", 45), 3000),
+                       new LoanApplication(new Person("WarmUp", 45), 8000),
+                       new LoanApplication(new Person("WarmUp", 15), 3000));
+    }
+
+    // A pooled session is reset and returned to the pool on close()
+    private KieSession newKieSession() {
+        return sessionsPool != null ? sessionsPool.newKieSession() : kieBase.newKieSession();
+    }
 }
@@ -0,0 +1,197 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.rule.EntryPoint;
+import org.kie.api.runtime.rule.FactHandle;
+
+/**
+ * One long-lived KieSession which decides a continuous stream of loan applications.
+ * <p>
+ * Applications are queued by {@link #offer(LoanApplication)} and inserted by a dedicated thread, which fires the rules
+ * for each batch and then deletes the decided applications, so the working memory stays empty between batches.
+ * Decisions are published in intake order to the subscribers of {@link #getDecisions()}.
+ * <p>
+ * When the rules fail on an application, e.g. one without an applicant, its batch is decided again one application
+ * at a time. The failing application gets a decision with the error and the session goes on with the next ones.
+ * <p>
+ * Memory is bounded: the intake queue holds at most queueCapacity applications and each subscriber buffers at most
+ * {@link Flow#defaultBufferSize()} decisions. A slow subscriber blocks the session thread, which fills the intake
+ * queue, and then offer() returns false.
+ */
+public class StreamingLoanSession implements AutoCloseable {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final KieSession kieSession;
+    // the rules match LoanApplication in the default entry point
+    private final EntryPoint entryPoint;
+    private final BlockingQueue<LoanApplication> intake;
+    private final SubmissionPublisher<Decision> decisions;
+    private final Thread sessionThread;
+
+    private final AtomicLong decided = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile boolean closed;
+
+    public StreamingLoanSession(KieBase kieBase, int queueCapacity) {
+        this.kieSession = kieBase.newKieSession();
+        this.entryPoint = kieSession.getEntryPoint("DEFAULT");
+        this.intake = new ArrayBlockingQueue<>(queueCapacity);
+        // delivered on the common pool, so subscribers don't run on the session thread
+        this.decisions = new SubmissionPublisher<>();
+        sessionThread = new Thread(this::run, "drools-streaming-session");
+        sessionThread.setDaemon(true);
+        sessionThread.start();
+    }
+
+    /**
+     * Queues the application for a decision. Doesn't block.
+     *
+     * @return false if the intake queue is full or the session is closed
+     */
+    public boolean offer(LoanApplication loanApplication) {
+        if (closed || !intake.offer(loanApplication)) {
+            rejected.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    public Flow.Publisher<Decision> getDecisions() {
+        return decisions;
+    }
+
+    public long getDecided() {
+        return decided.get();
+    }
+
+    // applications the rules failed on. Their decisions have an error
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public int getQueued() {
+        return intake.size();
+    }
+
+    // facts left in the working memory. 0 between batches
+    public long getFactCount() {
+        return kieSession.getFactCount();
+    }
+
+    /**
+     * Decides the queued applications, completes the subscribers and disposes the KieSession.
+     * An application offered concurrently with close() may be left undecided.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            sessionThread.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<LoanApplication> batch = new ArrayList<>(BATCH_SIZE);
+        List<FactHandle> handles = new ArrayList<>(BATCH_SIZE);
+        // restored before an application is decided again alone
+        boolean[] approved = new boolean[BATCH_SIZE];
+        try {
+            while (true) {
+                LoanApplication first = intake.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed) {
+                        break;
+                    }
+                    continue;
+                }
+                batch.add(first);
+                intake.drainTo(batch, BATCH_SIZE - 1);
+
+                for (int i = 0; i < batch.size(); i++) {
+                    approved[i] = batch.get(i).isApproved();
+                }
+                try {
+                    for (LoanApplication loanApplication : batch) {
+                        handles.add(entryPoint.insert(loanApplication));
+                    }
+                    kieSession.fireAllRules();
+                } catch (RuntimeException e) {
+                    // one of them broke the batch. Decides them one at a time, so only that one fails
+                    deleteAll(handles);
+                    for (int i = 0; i < batch.size(); i++) {
+                        batch.get(i).setApproved(approved[i]);
+                        decideAlone(batch.get(i), handles);
+                    }
+                    batch.clear();
+                    continue;
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    // decided. Nothing else matches it, so it is retracted
+                    entryPoint.delete(handles.get(i));
+                    decisions.submit(new Decision(batch.get(i), batch.get(i).isApproved(), null));
+                }
+                decided.addAndGet(batch.size());
+                batch.clear();
+                handles.clear();
+            }
+            decisions.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            decisions.closeExceptionally(e);
+        } catch (RuntimeException e) {
+            System.err.println("*** StreamingLoanSession.run: failed. " + e);
+            decisions.closeExceptionally(e);
+        } finally {
+            closed = true;
+            kieSession.dispose();
+        }
+    }
+
+    private void decideAlone(LoanApplication loanApplication, List<FactHandle> handles) {
+        try {
+            handles.add(entryPoint.insert(loanApplication));
+            kieSession.fireAllRules();
+            deleteAll(handles);
+            decided.incrementAndGet();
+            decisions.submit(new Decision(loanApplication, loanApplication.isApproved(), null));
+        } catch (RuntimeException e) {
+            deleteAll(handles);
+            failed.incrementAndGet();
+            // reported by the error of the decision
+            decisions.submit(new Decision(loanApplication, false, e.toString()));
+        }
+    }
+
+    // the working memory is left empty for the next applications
+    private void deleteAll(List<FactHandle> handles) {
+        for (FactHandle handle : handles) {
+            entryPoint.delete(handle);
+        }
+        handles.clear();
+    }
+
+    /**
+     * @param error null, unless the rules failed on the application. It isn't approved then
+     */
+    public record Decision(LoanApplication loanApplication, boolean approved, String error) {
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.langchain4j.drools;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Doesn't require LLM. The LLM extractor is replaced by a stub.
+ */
+class CachingLoanApplicationExtractorTest {
+
+    @Test
+    void normalizesCasingWhitespaceAndNumbers() {
+        String key = CachingLoanApplicationExtractor.normalize("John, 45, requesting $8000");
+
+        assertThat(CachingLoanApplicationExtractor.normalize("  john,   45,\trequesting $8,000.00 ! ")).isEqualTo(key);
+        assertThat(CachingLoanApplicationExtractor.normalize("JOHN, 45, requesting $ 8000.")).isEqualTo(key);
+        assertThat(CachingLoanApplicationExtractor.normalize("John, 45, requesting $8001")).isNotEqualTo(key);
+        assertThat(CachingLoanApplicationExtractor.normalize("John, 45, requesting $8000.5")).isNotEqualTo(key);
+        assertThat(CachingLoanApplicationExtractor.normalize("John, 45, requesting $80,00")).isNotEqualTo(key);
+    }
+
+    @Test
+    void hitsSkipTheDelegateUntilExpired() {
+        AtomicInteger llmCalls = new AtomicInteger();
+        AtomicLong clock = new AtomicLong();
+        CachingLoanApplicationExtractor extractor = new CachingLoanApplicationExtractor(request -> {
+            llmCalls.incrementAndGet();
+            return new LoanApplication(new Person("John", 45), 8000);
+        }, 2, TimeUnit.SECONDS.toNanos(60), clock::get);
+
+        LoanApplication first = extractor.extract("John, 45, requesting $8000");
+        // approved by the rules, which must not leak into the cached application
+        first.setApproved(true);
+        LoanApplication retry = extractor.extract("john, 45, requesting $8,000.");
+
+        assertThat(llmCalls.get()).isEqualTo(1);
+        assertThat(retry).isNotSameAs(first);
+        assertThat(retry.getApplicant()).isEqualTo(new Person("John", 45));
+        assertThat(retry.getAmount()).isEqualTo(8000);
+        assertThat(retry.isApproved()).isFalse();
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        extractor.extract("John, 45, requesting $8000");
+        assertThat(llmCalls.get()).isEqualTo(2);
+        assertThat(extractor.getExpirations()).isEqualTo(1);
+
+        // least recently used is evicted
+        extractor.extract("Jane, 30, requesting $3000");
+        extractor.extract("Bob, 62, requesting $12000");
+        assertThat(extractor.getEvictions()).isEqualTo(1);
+        assertThat(extractor.size()).isEqualTo(2);
+
+        System.out.println(extractor.report());
+        assertThat(extractor.getHits()).isEqualTo(1);
+        assertThat(extractor.getMisses()).isEqualTo(4);
+    }
+
+    @Test
+    void disabledByDefault() {
+        LoanApplicationExtractor llm = request -> null;
+        assertThat(DroolsUtils.cacheExtractions(llm)).isSameAs(llm);
+
+        System.setProperty(DroolsUtils.EXTRACTION_CACHE_SIZE_PROPERTY, "100");
+        try {
+            assertThat(DroolsUtils.cacheExtractions(llm)).isInstanceOf(CachingLoanApplicationExtractor.class);
+        } finally {
+            System.clearProperty(DroolsUtils.EXTRACTION_CACHE_SIZE_PROPERTY);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import dev.langchain4j.model.chat.ChatModel;
+
+/**
+ * Chooses, with -Dllm.mode, between the live model, recording it with {@link RecordingChatModel} and replaying
+ * the recording with {@link ReplayChatModel}, so the agent pipelines can run without OpenAI once recorded.
+ */
+public final class ChatModelRecordings {
+
+    // live (default), record or replay
+    public static final String MODE_PROPERTY = "llm.mode";
+    public static final String DIRECTORY_PROPERTY = "llm.recordings.dir";
+    // milliseconds, or "recorded" (default) to wait as long as the recorded call
+    public static final String LATENCY_PROPERTY = "llm.replay.latency";
+    // true to serve a request which wasn't recorded the next recorded response, instead of failing. Defaults to false
+    public static final String LENIENT_PROPERTY = "llm.replay.lenient";
+
+    public static final String DEFAULT_DIRECTORY = "src/test/recordings";
+
+    // one recording per model name, shared by the tests of a run
+    private static final Map<String, ChatModel> MODELS = new ConcurrentHashMap<>();
+
+    private ChatModelRecordings() {
+    }
+
+    /**
+     * @param name      names the recording file, e.g. "base" records to src/test/recordings/base.jsonl
+     * @param liveModel called once when recording, never when replaying
+     */
+    public static ChatModel of(String name, Supplier<ChatModel> liveModel) {
+        String mode = System.getProperty(MODE_PROPERTY, "live");
+        switch (mode) {
+            case "live":
+                return liveModel.get();
+            case "record":
+                return MODELS.computeIfAbsent(name, n -> {
+                    System.out.println("*** ChatModelRecordings.of: recording the " + n + " model to " + getFile(n));
+                    return new RecordingChatModel(liveModel.get(), getFile(n));
+                });
+            case "replay":
+                return MODELS.computeIfAbsent(name, ChatModelRecordings::replay);
+            default:
+                throw new IllegalArgumentException("Unknown " + MODE_PROPERTY + ": " + mode + ", expected live, record or replay");
+        }
+    }
+
+    private static ChatModel replay(String name) {
+        Path file = getFile(name);
+        if (!Files.exists(file)) {
+            throw new IllegalStateException("No recording of the " + name + " model at " + file.toAbsolutePath()
+                                                    + ", run the tests with -D" + MODE_PROPERTY + "=record first");
+        }
+        String latency = System.getProperty(LATENCY_PROPERTY, "recorded");
+        ReplayChatModel model = new ReplayChatModel(file, latency.equals("recorded") ? null : Duration.ofMillis(Long.parseLong(latency)),
+                                                    Boolean.getBoolean(LENIENT_PROPERTY));
+        System.out.println("*** ChatModelRecordings.of: replaying " + model.size() + " exchanges of the " + name + " model from " + file);
+        return model;
+    }
+
+    public static Path getFile(String name) {
+        return Path.of(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY)).resolve(name + ".jsonl");
+    }
+}
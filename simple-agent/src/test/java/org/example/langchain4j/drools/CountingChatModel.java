@@ -0,0 +1,72 @@
+package org.example.langchain4j.drools;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * Counts the round trips to another ChatModel and their latency, to compare agent topologies.
+ */
+public class CountingChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+
+    public CountingChatModel(ChatModel delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        long start = System.nanoTime();
+        try {
+            return delegate.chat(chatRequest);
+        } finally {
+            nanos.addAndGet(System.nanoTime() - start);
+            calls.incrementAndGet();
+        }
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return delegate.listeners();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    // total time spent waiting for the model
+    public long getNanos() {
+        return nanos.get();
+    }
+
+    public void reset() {
+        calls.set(0);
+        nanos.set(0);
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.langchain4j.drools;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Doesn't require LLM. The LLM extractor is replaced by a stub with a fixed latency.
+ */
+class FastPathLoanApplicationExtractorTest {
+
+    private static final long LLM_LATENCY_MILLIS = 20;
+
+    @Test
+    void parsesCommonPhrasings() {
+        assertParsed("John, 45, requesting $8000", "John", 45, 8000);
+        assertParsed("Evaluate a loan application for John who is a 45 year old person requesting a loan of $8000.", "John", 45, 8000);
+        assertParsed("Jane (30) wants $5,000", "Jane", 30, 5000);
+        assertParsed("My name is Jane, I'm 30 years old and I'd like to borrow 2.5k dollars", "Jane", 30, 2500);
+        assertParsed("Applicant: Bob, aged 17, loan of 3000 USD", "Bob", 17, 3000);
+        assertParsed("Bob is a 62-year-old retiree requesting 12,000 dollars", "Bob", 62, 12000);
+        assertParsed("Mary, 28, borrow $7.5k", "Mary", 28, 7500);
+    }
+
+    @Test
+    void lowConfidenceRequestsAreNotParsed() {
+        // two applicants, two amounts, no age, no name, no amount, unrealistic age
+        assertThat(FastPathLoanApplicationExtractor.parse("John, 45, and Mary, 40, requesting $8000")).isNull();
+        assertThat(FastPathLoanApplicationExtractor.parse("John, 45, requesting $8000 or maybe $9000")).isNull();
+        assertThat(FastPathLoanApplicationExtractor.parse("John wants $8000")).isNull();
+        assertThat(FastPathLoanApplicationExtractor.parse("A 45 year old person requesting $8000")).isNull();
+        assertThat(FastPathLoanApplicationExtractor.parse("John, 45, needs some money for a car")).isNull();
+        assertThat(FastPathLoanApplicationExtractor.parse("John, 450, requesting $8000")).isNull();
+        assertThat(FastPathLoanApplicationExtractor.parse("John, 45, requesting $99999999999")).isNull();
+        assertThat(FastPathLoanApplicationExtractor.parse(null)).isNull();
+    }
+
+    @Test
+    void fallsBackToLlmAndReportsHitRate() {
+        AtomicInteger llmCalls = new AtomicInteger();
+        FastPathLoanApplicationExtractor extractor = new FastPathLoanApplicationExtractor(request -> {
+            llmCalls.incrementAndGet();
+            try {
+                Thread.sleep(LLM_LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new LoanApplication(new Person("John", 45), 8000);
+        });
+
+        List<String> requests = List.of("John, 45, requesting $8000",
+                                         "Jane (30) wants $5,000",
+                                         "Bob is a 62-year-old retiree requesting 12,000 dollars",
+                                         "John, 45, and Mary, 40, requesting $8000");
+        for (int i = 0; i < 25; i++) {
+            for (String request : requests) {
+                assertThat(extractor.extract(request)).isNotNull();
+            }
+        }
+
+        System.out.println(extractor.report());
+        assertThat(llmCalls.get()).isEqualTo(25);
+        assertThat(extractor.getHits()).isEqualTo(75);
+        assertThat(extractor.getFallbacks()).isEqualTo(25);
+        assertThat(extractor.getHitRate()).isEqualTo(0.75);
+        // each hit saves about one LLM round trip
+        assertThat(extractor.getLatencySavedNanos()).isGreaterThan(75 * LLM_LATENCY_MILLIS * 1_000_000 / 2);
+    }
+
+    @Test
+    void parsesInMicroseconds() {
+        String request = "Evaluate a loan application for John who is a 45 year old person requesting a loan of $8000.";
+        for (int i = 0; i < 20_000; i++) {
+            FastPathLoanApplicationExtractor.parse(request);
+        }
+        int parses = 100_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < parses; i++) {
+            assertThat(FastPathLoanApplicationExtractor.parse(request)).isNotNull();
+        }
+        double micros = (System.nanoTime() - start) / 1000.0 / parses;
+        System.out.println(String.format("%.2f us per parse", micros));
+        assertThat(micros).isLessThan(1000);
+    }
+
+    private static void assertParsed(String request, String name, int age, int amount) {
+        LoanApplication loanApplication = FastPathLoanApplicationExtractor.parse(request);
+        assertThat(loanApplication).as(request).isNotNull();
+        assertThat(loanApplication.getApplicant()).as(request).isEqualTo(new Person(name, age));
+        assertThat(loanApplication.getAmount()).as(request).isEqualTo(amount);
+    }
+}
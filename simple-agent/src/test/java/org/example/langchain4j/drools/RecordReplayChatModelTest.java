@@ -0,0 +1,90 @@
+package org.example.langchain4j.drools;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Doesn't require LLM. The live model is replaced by a stub.
+ */
+class RecordReplayChatModelTest {
+
+    private static final String REQUEST = """
+            Evaluate a loan application for John who is a 45 year old person requesting a loan of $8000.
+            """;
+
+    // the extractor and the summarizer of LoanPipelines.sequence
+    private static final ChatModel STUB = new ChatModel() {
+        @Override
+        public ChatResponse doChat(ChatRequest chatRequest) {
+            String prompt = ((UserMessage) chatRequest.messages().get(chatRequest.messages().size() - 1)).singleText();
+            String answer = prompt.startsWith("Convert user request")
+                    ? "{\"applicant\": {\"name\": \"John\", \"age\": 45}, \"amount\": 8000}"
+                    : "John, your loan application for $8000 is rejected.";
+            return ChatResponse.builder().aiMessage(AiMessage.from(answer)).build();
+        }
+    };
+
+    @TempDir
+    Path recordings;
+
+    @Test
+    void replaysRecordedPipelineOffline() {
+        Path file = recordings.resolve("base.jsonl");
+        String recordedSummary;
+        try (RecordingChatModel recording = new RecordingChatModel(STUB, file)) {
+            recordedSummary = approveLoan(recording);
+            assertThat(recording.getRecorded()).isEqualTo(2);
+        }
+
+        CountingChatModel replay = new CountingChatModel(new ReplayChatModel(file, Duration.ZERO));
+        // more runs than recorded, the last response of each request is served again
+        for (int i = 0; i < 3; i++) {
+            assertThat(approveLoan(replay)).isEqualTo(recordedSummary).contains("rejected");
+        }
+        assertThat(replay.getCalls()).isEqualTo(6);
+    }
+
+    @Test
+    void servesRecordedOrderAndLatency() {
+        Path file = recordings.resolve("order.jsonl");
+        try (RecordingChatModel recording = new RecordingChatModel(STUB, file)) {
+            recording.chat(ChatRequest.builder().messages(UserMessage.from("Convert user request: John, 45, $8000")).build());
+            recording.chat(ChatRequest.builder().messages(UserMessage.from("Write a brief response")).build());
+        }
+
+        ReplayChatModel replay = new ReplayChatModel(file, Duration.ofMillis(20));
+        long start = System.nanoTime();
+        assertThat(replay.chat("Write a brief response")).contains("rejected");
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(Duration.ofMillis(20).toNanos());
+
+        // not recorded
+        assertThatThrownBy(() -> replay.chat("Something else")).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(ChatModelRecordings.LENIENT_PROPERTY);
+        assertThat(replay.getReplayed()).isEqualTo(1);
+        assertThat(replay.getUnmatched()).isZero();
+
+        // served in file order when lenient
+        ReplayChatModel lenient = new ReplayChatModel(file, Duration.ZERO, true);
+        assertThat(lenient.chat("Something else")).contains("\"amount\": 8000");
+        assertThat(lenient.chat("Something else again")).contains("rejected");
+
+        System.out.println(lenient.report());
+        assertThat(lenient.getReplayed()).isZero();
+        assertThat(lenient.getUnmatched()).isEqualTo(2);
+    }
+
+    private static String approveLoan(ChatModel model) {
+        return LoanPipelines.sequence(LoanPipelines.extractor(model), model).approveLoan(REQUEST).result();
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.langchain4j.drools;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessageSerializer;
+import dev.langchain4j.model.ModelProvider;
+import dev.langchain4j.model.chat.Capability;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.listener.ChatModelListener;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.request.ChatRequestParameters;
+import dev.langchain4j.model.chat.response.ChatResponse;
+
+/**
+ * Records the round trips to another ChatModel in a JSONL file, so {@link ReplayChatModel} can serve them without
+ * the model. One line per call: the SHA-256 of the request, the latency in milliseconds and the response message,
+ * e.g. {"key":"9f86...","ms":812,"response":{...}}. The file is overwritten.
+ */
+public class RecordingChatModel implements ChatModel, AutoCloseable {
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final ChatModel delegate;
+    private final Path file;
+    // guarded by this
+    private final Writer writer;
+    private final AtomicLong recorded = new AtomicLong();
+
+    public RecordingChatModel(ChatModel delegate, Path file) {
+        this.delegate = delegate;
+        this.file = file;
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create recording file: " + file, e);
+        }
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        long start = System.nanoTime();
+        ChatResponse chatResponse = delegate.chat(chatRequest);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        write(toLine(key(chatRequest), millis, chatResponse.aiMessage()));
+        return chatResponse;
+    }
+
+    private synchronized void write(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+            // a test run may be killed, keep what was recorded so far
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write recording file: " + file, e);
+        }
+        recorded.incrementAndGet();
+    }
+
+    /**
+     * The messages, tools and response format of the request, which is what the model answers.
+     * Requests are recorded before the default request parameters of the model are applied.
+     */
+    static String key(ChatRequest chatRequest) {
+        StringBuilder sb = new StringBuilder(ChatMessageSerializer.messagesToJson(chatRequest.messages()));
+        List<ToolSpecification> toolSpecifications = chatRequest.toolSpecifications();
+        if (toolSpecifications != null) {
+            for (ToolSpecification toolSpecification : toolSpecifications) {
+                sb.append('\n').append(toolSpecification);
+            }
+        }
+        if (chatRequest.responseFormat() != null) {
+            sb.append('\n').append(chatRequest.responseFormat());
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HEX.formatHex(digest.digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static String toLine(String key, long millis, AiMessage aiMessage) {
+        return "{\"key\":\"" + key + "\",\"ms\":" + millis + ",\"response\":" + ChatMessageSerializer.messageToJson(aiMessage) + "}";
+    }
+
+    @Override
+    public ChatRequestParameters defaultRequestParameters() {
+        return delegate.defaultRequestParameters();
+    }
+
+    @Override
+    public List<ChatModelListener> listeners() {
+        return delegate.listeners();
+    }
+
+    @Override
+    public ModelProvider provider() {
+        return delegate.provider();
+    }
+
+    @Override
+    public Set<Capability> supportedCapabilities() {
+        return delegate.supportedCapabilities();
+    }
+
+    public long getRecorded() {
+        return recorded.get();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close recording file: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Doesn't require LLM.
+ */
+class StreamingLoanSessionTest {
+
+    private static final int APPLICATIONS = 20_000;
+
+    @Test
+    void decisionsArePublishedInOrderAndFactsRetracted() throws Exception {
+        List<StreamingLoanSession.Decision> decisions = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch completed = new CountDownLatch(1);
+
+        long start = System.nanoTime();
+        try (StreamingLoanSession session = new SimpleDroolsAgent(0).newStreamingSession()) {
+            session.getDecisions().subscribe(new CollectingSubscriber(decisions, completed, Long.MAX_VALUE));
+            for (int i = 0; i < APPLICATIONS; i++) {
+                LoanApplication loanApplication = new LoanApplication(new Person("John", i % 3 == 0 ? 15 : 45), i % 2 == 0 ? 3000 : 8000);
+                // sustained intake. Waits when the queue is full
+                while (!session.offer(loanApplication)) {
+                    Thread.onSpinWait();
+                }
+            }
+            long deadline = System.currentTimeMillis() + 60_000;
+            while (session.getDecided() < APPLICATIONS && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(session.getDecided()).isEqualTo(APPLICATIONS);
+            assertThat(session.getFactCount()).isZero();
+        }
+        assertThat(completed.await(10, TimeUnit.SECONDS)).isTrue();
+        System.out.println(String.format("%d applications in %d ms", APPLICATIONS, (System.nanoTime() - start) / 1_000_000));
+
+        assertThat(decisions).hasSize(APPLICATIONS);
+        for (int i = 0; i < APPLICATIONS; i++) {
+            StreamingLoanSession.Decision decision = decisions.get(i);
+            assertThat(decision.loanApplication().getAmount()).isEqualTo(i % 2 == 0 ? 3000 : 8000);
+            assertThat(decision.approved()).isEqualTo(i % 3 != 0 && i % 2 == 0);
+        }
+    }
+
+    @Test
+    void malformedApplicationFailsAlone() throws Exception {
+        List<StreamingLoanSession.Decision> decisions = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch completed = new CountDownLatch(1);
+
+        try (StreamingLoanSession session = new SimpleDroolsAgent(0).newStreamingSession()) {
+            session.getDecisions().subscribe(new CollectingSubscriber(decisions, completed, Long.MAX_VALUE));
+            assertThat(session.offer(new LoanApplication(new Person("John", 45), 3000))).isTrue();
+            // no applicant
+            assertThat(session.offer(new LoanApplication(null, 3000))).isTrue();
+            assertThat(session.offer(new LoanApplication(new Person("Jane", 45), 8000))).isTrue();
+
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (session.getDecided() + session.getFailed() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(session.getDecided()).isEqualTo(2);
+            assertThat(session.getFailed()).isEqualTo(1);
+            assertThat(session.getFactCount()).isZero();
+
+            // still deciding
+            assertThat(session.offer(new LoanApplication(new Person("Jim", 45), 3000))).isTrue();
+            deadline = System.currentTimeMillis() + 10_000;
+            while (session.getDecided() < 3 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+        }
+        assertThat(completed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(decisions).hasSize(4);
+        assertThat(decisions).extracting(StreamingLoanSession.Decision::approved).containsExactly(true, false, false, true);
+        assertThat(decisions).extracting(StreamingLoanSession.Decision::error)
+                .satisfiesExactly(error -> assertThat(error).isNull(),
+                                  error -> assertThat(error).isNotNull(),
+                                  error -> assertThat(error).isNull(),
+                                  error -> assertThat(error).isNull());
+    }
+
+    @Test
+    void slowSubscriberFillsIntakeQueue() throws Exception {
+        System.setProperty(DroolsUtils.STREAMING_QUEUE_CAPACITY_PROPERTY, "100");
+        StreamingLoanSession session;
+        try {
+            session = new SimpleDroolsAgent(0).newStreamingSession();
+        } finally {
+            System.clearProperty(DroolsUtils.STREAMING_QUEUE_CAPACITY_PROPERTY);
+        }
+        // never requests more than one decision
+        session.getDecisions().subscribe(new CollectingSubscriber(Collections.synchronizedList(new ArrayList<>()), new CountDownLatch(1), 1));
+
+        // offers for a while, so the session thread blocks on the publisher and the queue stays full
+        int accepted = 0;
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (System.currentTimeMillis() < deadline) {
+            if (session.offer(new LoanApplication(new Person("John", 45), 3000))) {
+                accepted++;
+            }
+        }
+        // the publisher buffer, the batch in progress and the intake queue
+        assertThat(session.getRejected()).isPositive();
+        assertThat(accepted).isLessThanOrEqualTo(Flow.defaultBufferSize() + 256 + 100 + 1);
+        assertThat(session.getQueued()).isEqualTo(100);
+    }
+
+    private static final class CollectingSubscriber implements Flow.Subscriber<StreamingLoanSession.Decision> {
+
+        private final List<StreamingLoanSession.Decision> decisions;
+        private final CountDownLatch completed;
+        private final long demand;
+
+        private CollectingSubscriber(List<StreamingLoanSession.Decision> decisions, CountDownLatch completed, long demand) {
+            this.decisions = decisions;
+            this.completed = completed;
+            this.demand = demand;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscription.request(demand);
+        }
+
+        @Override
+        public void onNext(StreamingLoanSession.Decision decision) {
+            decisions.add(decision);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
@@ -1,29 +1,86 @@
 package org.example.langchain4j.drools;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
+import org.drools.base.util.Drools;
+import org.drools.compiler.kie.builder.impl.InternalKieModule;
 import org.drools.model.codegen.ExecutableModelProject;
+import org.eclipse.microprofile.config.ConfigProvider;
+import org.jboss.logging.Logger;
 import org.kie.api.KieBase;
 import org.kie.api.KieServices;
+import org.kie.api.builder.KieBuilder;
 import org.kie.api.builder.KieFileSystem;
+import org.kie.api.builder.KieModule;
 import org.kie.api.builder.ReleaseId;
 import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSessionsPool;
 
 public class DroolsUtils {
 
+    private static final Logger LOG = Logger.getLogger(DroolsUtils.class);
+
     private static final String EXAMPLE_PKG = "org/example/";
 
+    // initial size of the KieSession pool. 0 (default) means a new KieSession is created for each evaluation
+    public static final String SESSION_POOL_SIZE_PROPERTY = "drools.session.pool.size";
+
+    // number of synthetic evaluations run through every rule path before the first request. 0 (default) disables warm-up
+    public static final String WARM_UP_ITERATIONS_PROPERTY = "drools.warmup.iterations";
+
+    // maximum number of decisions cached by applicant age and amount. 0 (default) disables the cache
+    public static final String DECISION_CACHE_SIZE_PROPERTY = "drools.decision.cache.size";
+
+    // false compiles the DRL files at runtime instead of loading the KieBase prebuilt by kie-maven-plugin
+    public static final String PREBUILT_KIE_BASE_PROPERTY = "drools.kiebase.prebuilt";
+
+    // directory of compiled KieModules reused by later process starts. Not set (default) or empty disables the cache.
+    // It must be owned by the current user and not writable by others, as the KieModules are loaded as they are
+    public static final String KIE_MODULE_CACHE_DIR_PROPERTY = "drools.kiemodule.cache.dir";
+
+    // record the heap retained by each KieBase in KieBaseRegistry. Runs full GCs around each build, for diagnostics only
+    public static final String REGISTRY_MEASURE_HEAP_PROPERTY = "drools.registry.measure.heap";
+
+    // identical DRL contents are compiled once and the KieBase is shared
+    private static final KieBaseRegistry KIE_BASE_REGISTRY = new KieBaseRegistry(Boolean.getBoolean(REGISTRY_MEASURE_HEAP_PROPERTY));
+
     private DroolsUtils() {
     }
 
+    /**
+     * Returns the KieBase of the given name in META-INF/kmodule.xml. Its executable model is generated and compiled
+     * by kie-maven-plugin at build time, so no KieBuilder runs on startup.
+     * If prebuilt is false (drools.kiebase.prebuilt), the given files are compiled at runtime instead.
+     */
+    public static KieBase loadKieBase(boolean prebuilt, String kieBaseName, String... fileNames) {
+        if (!prebuilt) {
+            return createKieBase(fileNames);
+        }
+        // registered as well, so the registry reports it and a second caller gets the same instance
+        KieContainer kieContainer = KieServices.Factory.get().getKieClasspathContainer();
+        // the classpath container has no ReleaseId of its own
+        String releaseId = kieContainer.getReleaseId() != null ? kieContainer.getReleaseId().toString() : "classpath";
+        return KIE_BASE_REGISTRY.getOrLoad(kieBaseName, releaseId, () -> kieContainer.getKieBase(kieBaseName));
+    }
+
     // expects files under resources/org/example/
     public static KieBase createKieBase(String... fileNames) {
-        KieServices ks = KieServices.Factory.get();
-        KieFileSystem kfs = ks.newKieFileSystem();
-
+        Map<String, byte[]> drlFiles = new LinkedHashMap<>();
         for (String fileName : fileNames) {
             String resourcePath = EXAMPLE_PKG + fileName;
             URL url = DroolsUtils.class.getClassLoader().getResource(resourcePath);
@@ -32,38 +89,152 @@ public class DroolsUtils {
             }
 
             try (InputStream is = url.openStream()) {
-                byte[] bytes = is.readAllBytes();
-                kfs.write("src/main/resources/" + resourcePath,
-                          ks.getResources().newByteArrayResource(bytes));
+                drlFiles.put(resourcePath, is.readAllBytes());
             } catch (Exception e) {
                 throw new RuntimeException("Failed to read DRL file: " + resourcePath, e);
             }
         }
-
-        ReleaseId releaseId = ks.newReleaseId("org.example.langchain4j.drools", "drools-agent", "1.0.0");
-        kfs.generateAndWritePomXML(releaseId);
-        ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
-        KieContainer kcontainer = ks.newKieContainer(releaseId);
-        return kcontainer.getKieBase();
+        return KIE_BASE_REGISTRY.getOrBuild(drlFiles, DroolsUtils::buildKieBase);
     }
 
     // Keep this method for backward compatibility with tests
     public static KieBase createKieBase(List<Path> paths) {
-        KieServices ks = KieServices.Factory.get();
-        KieFileSystem kfs = ks.newKieFileSystem();
+        Map<String, byte[]> drlFiles = new LinkedHashMap<>();
         for (Path path : paths) {
             try (InputStream is = path.toUri().toURL().openStream()) {
-                byte[] bytes = is.readAllBytes();
-                kfs.write("src/main/resources/" + EXAMPLE_PKG + path.getFileName().toString(),
-                          ks.getResources().newByteArrayResource(bytes));
+                drlFiles.put(EXAMPLE_PKG + path.getFileName().toString(), is.readAllBytes());
             } catch (Exception e) {
                 throw new RuntimeException("Failed to read DRL file: " + path, e);
             }
         }
-        ReleaseId releaseId = ks.newReleaseId("org.example.langchain4j.drools", "drools-agent", "1.0.0");
+        return KIE_BASE_REGISTRY.getOrBuild(drlFiles, DroolsUtils::buildKieBase);
+    }
+
+    public static KieBaseRegistry getKieBaseRegistry() {
+        return KIE_BASE_REGISTRY;
+    }
+
+    static KieBase buildKieBase(Map<String, byte[]> drlFiles) {
+        KieServices ks = KieServices.Factory.get();
+
+        // the MCP server is started per client, so reuse the KieModule compiled by a previous process if any
+        Path cacheFile = getKieModuleCacheFile(drlFiles);
+        if (cacheFile != null && isPrivate(cacheFile)) {
+            try {
+                KieModule kieModule = ks.getRepository().addKieModule(ks.getResources().newByteArrayResource(Files.readAllBytes(cacheFile)));
+                LOG.debugf("Loaded compiled KieModule from %s", cacheFile);
+                return ks.newKieContainer(kieModule.getReleaseId()).getKieBase();
+            } catch (Exception e) {
+                LOG.warnf(e, "Ignoring unreadable KieModule cache %s", cacheFile);
+            }
+        }
+
+        KieFileSystem kfs = ks.newKieFileSystem();
+        drlFiles.forEach((resourcePath, bytes) -> kfs.write("src/main/resources/" + resourcePath,
+                                                            ks.getResources().newByteArrayResource(bytes)));
+        // a ReleaseId per rule set, so concurrent builds of different rule sets don't replace each other's KieModule
+        ReleaseId releaseId = ks.newReleaseId("org.example.langchain4j.drools", "drools-agent",
+                                              "1.0.0-" + KieBaseRegistry.contentHash(drlFiles).substring(0, 16));
         kfs.generateAndWritePomXML(releaseId);
-        ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
+        KieBuilder kieBuilder = ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
+        if (cacheFile != null) {
+            writeKieModuleCache(cacheFile, ((InternalKieModule) kieBuilder.getKieModule()).getBytes());
+        }
         KieContainer kcontainer = ks.newKieContainer(releaseId);
         return kcontainer.getKieBase();
     }
+
+    // null when the cache is disabled. Generated classes depend on the Drools version and on the domain classes,
+    // so the Drools and application versions are a part of the key
+    static Path getKieModuleCacheFile(Map<String, byte[]> drlFiles) {
+        String cacheDir = System.getProperty(KIE_MODULE_CACHE_DIR_PROPERTY, "");
+        if (cacheDir.isBlank()) {
+            return null;
+        }
+        return Paths.get(cacheDir, KieBaseRegistry.contentHash(drlFiles) + "-" + Drools.getFullVersion() + "-" + getApplicationVersion() + ".jar");
+    }
+
+    private static String getApplicationVersion() {
+        try {
+            return ConfigProvider.getConfig().getOptionalValue("quarkus.application.version", String.class).orElse("unknown");
+        } catch (RuntimeException e) {
+            return "unknown";
+        }
+    }
+
+    // true if the cache file and its directory exist, are owned by the current user and can't be written by other users
+    static boolean isPrivate(Path cacheFile) {
+        return Files.exists(cacheFile, LinkOption.NOFOLLOW_LINKS) && isPrivatePath(cacheFile.getParent()) && isPrivatePath(cacheFile);
+    }
+
+    private static boolean isPrivatePath(Path path) {
+        try {
+            if (Files.isSymbolicLink(path)) {
+                LOG.warnf("Ignoring KieModule cache %s: symbolic link", path);
+                return false;
+            }
+            if (!Files.getOwner(path).equals(currentUser())) {
+                LOG.warnf("Ignoring KieModule cache %s: not owned by the current user", path);
+                return false;
+            }
+            if (isPosix()) {
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path);
+                if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+                    LOG.warnf("Ignoring KieModule cache %s: writable by other users", path);
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            LOG.warnf(e, "Ignoring KieModule cache %s", path);
+            return false;
+        }
+    }
+
+    private static UserPrincipal currentUser() throws IOException {
+        return FileSystems.getDefault().getUserPrincipalLookupService().lookupPrincipalByName(System.getProperty("user.name"));
+    }
+
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    // Several MCP server processes may start at once, so write a temporary file and move it into place
+    private static void writeKieModuleCache(Path cacheFile, byte[] bytes) {
+        Path tempFile = null;
+        try {
+            Path cacheDir = cacheFile.getParent();
+            if (!Files.exists(cacheDir) && isPosix()) {
+                Files.createDirectories(cacheDir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectories(cacheDir);
+            }
+            if (!isPrivatePath(cacheDir)) {
+                return;
+            }
+            tempFile = Files.createTempFile(cacheFile.getParent(), "kiemodule", ".tmp");
+            Files.write(tempFile, bytes);
+            Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            LOG.debugf("Stored compiled KieModule in %s", cacheFile);
+        } catch (Exception e) {
+            LOG.warnf(e, "Failed to store KieModule cache %s", cacheFile);
+            try {
+                if (tempFile != null) {
+                    Files.deleteIfExists(tempFile);
+                }
+            } catch (Exception ignore) {
+                // best effort
+            }
+        }
+    }
+
+    // Returns null when poolSize <= 0. The pool grows beyond poolSize if more sessions are used concurrently.
+    public static KieSessionsPool createSessionsPool(KieBase kieBase, int poolSize) {
+        return poolSize > 0 ? kieBase.newKieSessionsPool(poolSize) : null;
+    }
+
+    // Returns null when maxSize <= 0
+    public static <V> DecisionCache<V> createDecisionCache(int maxSize) {
+        return maxSize > 0 ? new DecisionCache<>(maxSize) : null;
+    }
 }
@@ -1,10 +1,20 @@
 package org.example.langchain4j.drools;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 import io.quarkiverse.mcp.server.Tool;
 import io.quarkiverse.mcp.server.ToolArg;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
 import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionsPool;
+import org.kie.api.runtime.StatelessKieSession;
 import org.jboss.logging.Logger;
 
 /**
@@ -18,8 +28,52 @@ public class SimpleDroolsTool {
 
     private final KieBase kieBase;
 
-    public SimpleDroolsTool() {
-        this.kieBase = DroolsUtils.createKieBase("loan-application.drl");
+    // null when pooling is disabled
+    private final KieSessionsPool sessionsPool;
+
+    // null when the decision cache is disabled
+    private final DecisionCache<Boolean> decisionCache;
+
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    // for the client proxy created by ArC only. The bean itself is created by the @Inject constructor
+    protected SimpleDroolsTool() {
+        this.kieBase = null;
+        this.sessionsPool = null;
+        this.decisionCache = null;
+    }
+
+    // sessionPoolSize <= 0 disables pooling. warmUpIterations <= 0 disables warm-up. decisionCacheSize <= 0 disables the decision cache.
+    // prebuiltKieBase false compiles the DRL at runtime
+    @Inject
+    public SimpleDroolsTool(@ConfigProperty(name = DroolsUtils.SESSION_POOL_SIZE_PROPERTY, defaultValue = "0") int sessionPoolSize,
+                            @ConfigProperty(name = DroolsUtils.WARM_UP_ITERATIONS_PROPERTY, defaultValue = "0") int warmUpIterations,
+                            @ConfigProperty(name = DroolsUtils.DECISION_CACHE_SIZE_PROPERTY, defaultValue = "0") int decisionCacheSize,
+                            @ConfigProperty(name = DroolsUtils.PREBUILT_KIE_BASE_PROPERTY, defaultValue = "true") boolean prebuiltKieBase) {
+        this.kieBase = DroolsUtils.loadKieBase(prebuiltKieBase, "loanKieBase", "loan-application.drl");
+        this.sessionsPool = DroolsUtils.createSessionsPool(kieBase, sessionPoolSize);
+        this.decisionCache = DroolsUtils.createDecisionCache(decisionCacheSize);
+        if (warmUpIterations > 0) {
+            Thread warmUpThread = new Thread(() -> warmUp(warmUpIterations), "drools-warmup");
+            warmUpThread.setDaemon(true);
+            warmUpThread.start();
+        } else {
+            ready.countDown();
+        }
+    }
+
+    // false while the warm-up is running. Requests are accepted anyway, but may be slow
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
+
+    // hit rate and other metrics. null when the decision cache is disabled
+    public DecisionCache<Boolean> getDecisionCache() {
+        return decisionCache;
     }
 
     @Tool(description = "Evaluates a loan application based on business rules. " +
@@ -30,12 +84,86 @@ public class SimpleDroolsTool {
 
         LOG.infof("Evaluating loan application: %s", loanApplication);
 
-        try (var kieSession = kieBase.newKieSession()) {
+        boolean result = decide(loanApplication);
+        LOG.infof("Loan application result: %s", result ? "APPROVED" : "REJECTED");
+        if (decisionCache != null && LOG.isDebugEnabled()) {
+            LOG.debug(decisionCache.report());
+        }
+        return result;
+    }
+
+    private boolean decide(LoanApplication loanApplication) {
+        if (decisionCache == null || loanApplication.getApplicant() == null) {
+            return evaluate(loanApplication);
+        }
+        int age = loanApplication.getApplicant().age();
+        int amount = loanApplication.getAmount();
+        // the KieBase never changes here, so it identifies the rules
+        Boolean cached = decisionCache.get(kieBase, age, amount);
+        if (cached != null) {
+            loanApplication.setApproved(cached);
+            return cached;
+        }
+        boolean approved = evaluate(loanApplication);
+        decisionCache.put(kieBase, age, amount, approved);
+        return approved;
+    }
+
+    private boolean evaluate(LoanApplication loanApplication) {
+        try (var kieSession = newKieSession()) {
             kieSession.insert(loanApplication);
             kieSession.fireAllRules();
-            boolean result = loanApplication.isApproved();
-            LOG.infof("Loan application result: %s", result ? "APPROVED" : "REJECTED");
-            return result;
+            return loanApplication.isApproved();
         }
     }
+
+    @Tool(description = "Evaluates a batch of loan applications based on business rules in one execution. " +
+                       "Returns 'true' (approved) or 'false' (rejected) for each application, in the order of the applications.")
+    public List<Boolean> approveBatch(
+            @ToolArg(description = "Loan applications") List<LoanApplication> loanApplications) {
+
+        LOG.infof("Evaluating %d loan applications", loanApplications.size());
+
+        // all applications are inserted and fired in one execution
+        newStatelessKieSession().execute(loanApplications);
+
+        List<Boolean> results = new ArrayList<>(loanApplications.size());
+        for (LoanApplication loanApplication : loanApplications) {
+            results.add(loanApplication.isApproved());
+        }
+        return results;
+    }
+
+    // Runs synthetic applications through the same code paths as approve and approveBatch, so the classes generated
+    // for the executable model are loaded and JIT compiled before the first request
+    private void warmUp(int iterations) {
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (LoanApplication loanApplication : warmUpApplications()) {
+                    evaluate(loanApplication);
+                }
+                newStatelessKieSession().execute(warmUpApplications());
+            }
+            LOG.infof("Warm-up completed: %d iterations in %d ms", iterations, (System.nanoTime() - start) / 1_000_000);
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    // approved, too high amount and not adult
+    private static List<LoanApplication> warmUpApplications() {
+        return List.of(new LoanApplication(new Person("WarmUp", 45), 3000),
+                       new LoanApplication(new Person("WarmUp", 45), 8000),
+                       new LoanApplication(new Person("WarmUp", 15), 3000));
+    }
+
+    // A pooled session is reset and returned to the pool on close()
+    private KieSession newKieSession() {
+        return sessionsPool != null ? sessionsPool.newKieSession() : kieBase.newKieSession();
+    }
+
+    private StatelessKieSession newStatelessKieSession() {
+        return sessionsPool != null ? sessionsPool.newStatelessKieSession() : kieBase.newStatelessKieSession();
+    }
 }
@@ -0,0 +1,106 @@
+package org.example.langchain4j.drools;
+
+import java.io.InputStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Map;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.kie.api.KieBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class KieModuleCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @AfterEach
+    void clearCacheDir() {
+        System.clearProperty(DroolsUtils.KIE_MODULE_CACHE_DIR_PROPERTY);
+    }
+
+    @Test
+    void compiledKieModuleIsReusedFromCache() throws Exception {
+        System.setProperty(DroolsUtils.KIE_MODULE_CACHE_DIR_PROPERTY, cacheDir.toString());
+        Map<String, byte[]> drlFiles = Map.of("org/example/loan-application.drl", readDrl());
+        Path cacheFile = DroolsUtils.getKieModuleCacheFile(drlFiles);
+
+        long start = System.nanoTime();
+        KieBase compiled = DroolsUtils.buildKieBase(drlFiles);
+        long compileMillis = (System.nanoTime() - start) / 1_000_000;
+        assertThat(cacheFile).isRegularFile().hasParent(cacheDir);
+        long lastModified = Files.getLastModifiedTime(cacheFile).toMillis();
+
+        start = System.nanoTime();
+        KieBase loaded = DroolsUtils.buildKieBase(drlFiles);
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        assertThat(Files.getLastModifiedTime(cacheFile).toMillis()).isEqualTo(lastModified);
+
+        System.out.println("compile = " + compileMillis + " ms, load from cache = " + loadMillis + " ms");
+        assertThat(approve(compiled, 3000)).isTrue();
+        assertThat(approve(loaded, 3000)).isTrue();
+        assertThat(approve(loaded, 8000)).isFalse();
+    }
+
+    @Test
+    void corruptCacheIsRebuilt() throws Exception {
+        System.setProperty(DroolsUtils.KIE_MODULE_CACHE_DIR_PROPERTY, cacheDir.toString());
+        Map<String, byte[]> drlFiles = Map.of("org/example/loan-application.drl", readDrl());
+        Path cacheFile = DroolsUtils.getKieModuleCacheFile(drlFiles);
+        Files.write(cacheFile, new byte[]{1, 2, 3});
+
+        KieBase kieBase = DroolsUtils.buildKieBase(drlFiles);
+
+        assertThat(approve(kieBase, 3000)).isTrue();
+        assertThat(Files.size(cacheFile)).isGreaterThan(3);
+    }
+
+    @Test
+    void cacheIsDisabledByDefault() {
+        assertThat(DroolsUtils.getKieModuleCacheFile(Map.of("a.drl", new byte[0]))).isNull();
+
+        System.setProperty(DroolsUtils.KIE_MODULE_CACHE_DIR_PROPERTY, "");
+        assertThat(DroolsUtils.getKieModuleCacheFile(Map.of("a.drl", new byte[0]))).isNull();
+    }
+
+    @Test
+    void cacheWritableByOthersIsIgnored() throws Exception {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        Path sharedDir = Files.createDirectory(cacheDir.resolve("shared"));
+        Files.setPosixFilePermissions(sharedDir, PosixFilePermissions.fromString("rwxrwxrwx"));
+        System.setProperty(DroolsUtils.KIE_MODULE_CACHE_DIR_PROPERTY, sharedDir.toString());
+        Map<String, byte[]> drlFiles = Map.of("org/example/loan-application.drl", readDrl());
+        Path cacheFile = DroolsUtils.getKieModuleCacheFile(drlFiles);
+        Files.write(cacheFile, new byte[]{1, 2, 3});
+
+        KieBase kieBase = DroolsUtils.buildKieBase(drlFiles);
+
+        assertThat(approve(kieBase, 3000)).isTrue();
+        assertThat(DroolsUtils.isPrivate(cacheFile)).isFalse();
+        // neither loaded nor replaced
+        assertThat(Files.size(cacheFile)).isEqualTo(3);
+    }
+
+    private static byte[] readDrl() throws Exception {
+        try (InputStream is = KieModuleCacheTest.class.getClassLoader().getResourceAsStream("org/example/loan-application.drl")) {
+            return is.readAllBytes();
+        }
+    }
+
+    private static boolean approve(KieBase kieBase, int amount) {
+        LoanApplication loanApplication = new LoanApplication(new Person("John", 45), amount);
+        try (var kieSession = kieBase.newKieSession()) {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        }
+        return loanApplication.isApproved();
+    }
+}
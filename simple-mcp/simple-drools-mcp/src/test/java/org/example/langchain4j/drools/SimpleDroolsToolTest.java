@@ -2,6 +2,8 @@ package org.example.langchain4j.drools;
 
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
+import java.util.List;
+
 import org.example.langchain4j.drools.domain.LoanApplication;
 import org.example.langchain4j.drools.domain.Person;
 import org.junit.jupiter.api.Test;
@@ -43,4 +45,13 @@ class SimpleDroolsToolTest {
         Boolean result = droolsTool.approve(new LoanApplication(new Person("Charlie", 16), 10000));
         assertThat(result).isFalse();
     }
+
+    @Test
+    void testApproveBatch_resultsInInputOrder() {
+        List<Boolean> results = droolsTool.approveBatch(List.of(new LoanApplication(new Person("John", 45), 3000),
+                                                                new LoanApplication(new Person("Jane", 16), 3000),
+                                                                new LoanApplication(new Person("Bob", 30), 8000),
+                                                                new LoanApplication(new Person("Alice", 18), 5000)));
+        assertThat(results).containsExactly(true, false, false, true);
+    }
 }
@@ -1,29 +1,80 @@
 package org.example.langchain4j.drools;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import org.drools.model.codegen.ExecutableModelProject;
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
 import org.kie.api.KieBase;
 import org.kie.api.KieServices;
 import org.kie.api.builder.KieFileSystem;
 import org.kie.api.builder.ReleaseId;
 import org.kie.api.runtime.KieContainer;
+import org.kie.api.runtime.KieSessionsPool;
 
 public class DroolsUtils {
 
     private static final String EXAMPLE_PKG = "org/example/";
 
+    // initial size of the KieSession pool. 0 (default) means a new KieSession is created for each evaluation
+    public static final String SESSION_POOL_SIZE_PROPERTY = "drools.session.pool.size";
+
+    // number of synthetic evaluations run through every rule path before the first request. 0 (default) disables warm-up
+    public static final String WARM_UP_ITERATIONS_PROPERTY = "drools.warmup.iterations";
+
+    // maximum number of decisions cached by applicant age and amount. 0 (default) disables the cache
+    public static final String DECISION_CACHE_SIZE_PROPERTY = "drools.decision.cache.size";
+
+    // print each evaluated loan application to System.out. Off by default: System.out is synchronized and unbuffered,
+    // so it serializes concurrent evaluations
+    public static final String CONSOLE_LOG_PROPERTY = "drools.console.log";
+
+    // directory of the decision journal. When set, decisions are recorded there
+    public static final String JOURNAL_DIR_PROPERTY = "drools.journal.dir";
+
+    // size of a journal file before rolling over to the next one. Defaults to 64 MB
+    public static final String JOURNAL_MAX_FILE_SIZE_PROPERTY = "drools.journal.max.file.size";
+
+    // number of decisions buffered for the journal writer. Further decisions are dropped. Defaults to 8192
+    public static final String JOURNAL_BUFFER_SIZE_PROPERTY = "drools.journal.buffer.size";
+
+    // false compiles the DRL files at runtime instead of loading the KieBase prebuilt by kie-maven-plugin
+    public static final String PREBUILT_KIE_BASE_PROPERTY = "drools.kiebase.prebuilt";
+
+    // record the heap retained by each KieBase in KieBaseRegistry. Runs full GCs around each build, for diagnostics only
+    public static final String REGISTRY_MEASURE_HEAP_PROPERTY = "drools.registry.measure.heap";
+
+    // identical DRL contents are compiled once and the KieBase is shared
+    private static final KieBaseRegistry KIE_BASE_REGISTRY = new KieBaseRegistry(Boolean.getBoolean(REGISTRY_MEASURE_HEAP_PROPERTY));
+
     private DroolsUtils() {
     }
 
+    /**
+     * Returns the KieBase of the given name in META-INF/kmodule.xml. Its executable model is generated and compiled
+     * by kie-maven-plugin at build time, so no KieBuilder runs on startup.
+     * If drools.kiebase.prebuilt is false, the given files are compiled at runtime instead.
+     */
+    public static KieBase loadKieBase(String kieBaseName, String... fileNames) {
+        if (!Boolean.parseBoolean(System.getProperty(PREBUILT_KIE_BASE_PROPERTY, "true"))) {
+            return createKieBase(fileNames);
+        }
+        // registered as well, so the registry reports it and a second caller gets the same instance
+        KieContainer kieContainer = KieServices.Factory.get().getKieClasspathContainer();
+        // the classpath container has no ReleaseId of its own
+        String releaseId = kieContainer.getReleaseId() != null ? kieContainer.getReleaseId().toString() : "classpath";
+        return KIE_BASE_REGISTRY.getOrLoad(kieBaseName, releaseId, () -> kieContainer.getKieBase(kieBaseName));
+    }
+
     // expects files under resources/org/example/
     public static KieBase createKieBase(String... fileNames) {
         List<Path> paths = new ArrayList<>();
@@ -39,20 +90,79 @@ public class DroolsUtils {
     }
 
     public static KieBase createKieBase(List<Path> paths) {
-        KieServices ks = KieServices.Factory.get();
-        KieFileSystem kfs = ks.newKieFileSystem();
+        Map<String, byte[]> drlFiles = new LinkedHashMap<>();
         for (Path path : paths) {
             try {
-                kfs.write("src/main/resources/" + EXAMPLE_PKG + path.getFileName().toString(),
-                          ks.getResources().newInputStreamResource(new FileInputStream(path.toFile())));
+                drlFiles.put(EXAMPLE_PKG + path.getFileName().toString(), Files.readAllBytes(path));
             } catch (Exception e) {
                 throw new RuntimeException("Failed to read DRL file: " + path, e);
             }
         }
-        ReleaseId releaseId = ks.newReleaseId("org.example.langchain4j.drools", "drools-agent", "1.0.0");
+        return KIE_BASE_REGISTRY.getOrBuild(drlFiles, DroolsUtils::buildKieBase);
+    }
+
+    public static KieBaseRegistry getKieBaseRegistry() {
+        return KIE_BASE_REGISTRY;
+    }
+
+    private static KieBase buildKieBase(Map<String, byte[]> drlFiles) {
+        KieServices ks = KieServices.Factory.get();
+        KieFileSystem kfs = ks.newKieFileSystem();
+        drlFiles.forEach((resourcePath, bytes) -> kfs.write("src/main/resources/" + resourcePath,
+                                                            ks.getResources().newByteArrayResource(bytes)));
+        // a ReleaseId per rule set, so concurrent builds of different rule sets don't replace each other's KieModule
+        ReleaseId releaseId = ks.newReleaseId("org.example.langchain4j.drools", "drools-agent",
+                                              "1.0.0-" + KieBaseRegistry.contentHash(drlFiles).substring(0, 16));
         kfs.generateAndWritePomXML(releaseId);
         ks.newKieBuilder(kfs).buildAll(ExecutableModelProject.class);
         KieContainer kcontainer = ks.newKieContainer(releaseId);
         return kcontainer.getKieBase();
     }
+
+    public static int getSessionPoolSize() {
+        return Integer.getInteger(SESSION_POOL_SIZE_PROPERTY, 0);
+    }
+
+    public static boolean isConsoleLogEnabled() {
+        return Boolean.getBoolean(CONSOLE_LOG_PROPERTY);
+    }
+
+    public static int getWarmUpIterations() {
+        return Integer.getInteger(WARM_UP_ITERATIONS_PROPERTY, 0);
+    }
+
+    // Returns null when poolSize <= 0. The pool grows beyond poolSize if more sessions are used concurrently.
+    public static KieSessionsPool createSessionsPool(KieBase kieBase, int poolSize) {
+        return poolSize > 0 ? kieBase.newKieSessionsPool(poolSize) : null;
+    }
+
+    public static int getDecisionCacheSize() {
+        return Integer.getInteger(DECISION_CACHE_SIZE_PROPERTY, 0);
+    }
+
+    // Returns null when maxSize <= 0
+    public static <V> DecisionCache<V> createDecisionCache(int maxSize) {
+        return maxSize > 0 ? new DecisionCache<>(maxSize) : null;
+    }
+
+    // Returns null when drools.journal.dir is not set. The journal is flushed and closed on JVM shutdown
+    public static DecisionJournal createDecisionJournal(String name) {
+        String dir = System.getProperty(JOURNAL_DIR_PROPERTY);
+        if (dir == null || dir.isBlank()) {
+            return null;
+        }
+        DecisionJournal journal = new DecisionJournal(Paths.get(dir), name,
+                                                      Integer.getInteger(JOURNAL_BUFFER_SIZE_PROPERTY, 8192),
+                                                      Long.getLong(JOURNAL_MAX_FILE_SIZE_PROPERTY, 64L * 1024 * 1024));
+        Runtime.getRuntime().addShutdownHook(new Thread(journal::close, "drools-journal-shutdown-" + name));
+        return journal;
+    }
+
+    // the fields of the application are copied, because it may be changed after the evaluation
+    public static boolean recordDecision(DecisionJournal journal, LoanApplication loanApplication, boolean approved,
+                                         Supplier<List<String>> firedRules, String kieBaseVersion, long latencyNanos) {
+        Person applicant = loanApplication.getApplicant();
+        return journal.record(applicant != null ? applicant.name() : null, applicant != null ? applicant.age() : -1,
+                              loanApplication.getAmount(), approved, firedRules, kieBaseVersion, latencyNanos);
+    }
 }
@@ -1,35 +1,176 @@
 package org.example.langchain4j.drools;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
 import dev.langchain4j.agent.tool.P;
 import dev.langchain4j.agent.tool.Tool;
 import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
 import org.kie.api.KieBase;
+import org.kie.api.runtime.KieSession;
+import org.kie.api.runtime.KieSessionsPool;
+import org.kie.api.runtime.StatelessKieSession;
 
 /**
  * A simple Drools tool that contains loan approval rules.
  */
 public class SimpleDroolsTool {
 
+    private static final String KIE_BASE_NAME = "loanKieBase";
+
     private static final SimpleDroolsTool INSTANCE = new SimpleDroolsTool();
 
     private KieBase kieBase;
 
+    // null when pooling is disabled
+    private KieSessionsPool sessionsPool;
+
+    // null when the decision cache is disabled
+    private DecisionCache<Boolean> decisionCache;
+
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    private final boolean consoleLog = DroolsUtils.isConsoleLogEnabled();
+
+    // null when the journal is disabled
+    private final DecisionJournal journal = DroolsUtils.createDecisionJournal("simple-drools-tool");
+
     private SimpleDroolsTool() {
-        kieBase = DroolsUtils.createKieBase("loan-application.drl");
+        this(DroolsUtils.getSessionPoolSize(), DroolsUtils.getWarmUpIterations(), DroolsUtils.getDecisionCacheSize());
+    }
+
+    // sessionPoolSize <= 0 disables pooling
+    SimpleDroolsTool(int sessionPoolSize) {
+        this(sessionPoolSize, 0, 0);
+    }
+
+    // warmUpIterations <= 0 disables warm-up. decisionCacheSize <= 0 disables the decision cache
+    SimpleDroolsTool(int sessionPoolSize, int warmUpIterations, int decisionCacheSize) {
+        kieBase = DroolsUtils.loadKieBase(KIE_BASE_NAME, "loan-application.drl");
+        sessionsPool = DroolsUtils.createSessionsPool(kieBase, sessionPoolSize);
+        decisionCache = DroolsUtils.createDecisionCache(decisionCacheSize);
+        if (warmUpIterations > 0) {
+            Thread warmUpThread = new Thread(() -> warmUp(warmUpIterations), "drools-warmup");
+            warmUpThread.setDaemon(true);
+            warmUpThread.start();
+        } else {
+            ready.countDown();
+        }
     }
 
     public static SimpleDroolsTool getInstance() {
         return INSTANCE;
     }
 
+    // false while the warm-up is running. Requests are accepted anyway, but may be slow
+    public boolean isReady() {
+        return ready.getCount() == 0;
+    }
+
+    public void awaitReady() throws InterruptedException {
+        ready.await();
+    }
+
+    // hit rate and other metrics. null when the decision cache is disabled
+    public DecisionCache<Boolean> getDecisionCache() {
+        return decisionCache;
+    }
+
     @Tool("check if a loan application is approved or not.")
     public boolean approve(@P("loan application") LoanApplication loanApplication) {
-        System.out.println("*** SimpleDroolsTool.approve: loanApplication = " + loanApplication);
+        if (consoleLog) {
+            System.out.println("*** SimpleDroolsTool.approve: loanApplication = " + loanApplication);
+        }
+        if (journal == null) {
+            return decide(loanApplication);
+        }
+        long start = System.nanoTime();
+        boolean approved = decide(loanApplication);
+        // the KieBase never changes here, so the KieBase name identifies the rules
+        DroolsUtils.recordDecision(journal, loanApplication, approved, null, KIE_BASE_NAME, System.nanoTime() - start);
+        return approved;
+    }
 
-        try (var kieSession = kieBase.newKieSession()) {
+    // null when the journal is disabled
+    public DecisionJournal getJournal() {
+        return journal;
+    }
+
+    private boolean decide(LoanApplication loanApplication) {
+        if (decisionCache == null || loanApplication.getApplicant() == null) {
+            return evaluate(loanApplication);
+        }
+        int age = loanApplication.getApplicant().age();
+        int amount = loanApplication.getAmount();
+        // the KieBase never changes here, so it identifies the rules
+        Boolean cached = decisionCache.get(kieBase, age, amount);
+        if (cached != null) {
+            loanApplication.setApproved(cached);
+            return cached;
+        }
+        boolean approved = evaluate(loanApplication);
+        decisionCache.put(kieBase, age, amount, approved);
+        return approved;
+    }
+
+    private boolean evaluate(LoanApplication loanApplication) {
+        try (var kieSession = newKieSession()) {
             kieSession.insert(loanApplication);
             kieSession.fireAllRules();
             return loanApplication.isApproved();
         }
     }
+
+    @Tool("check if each loan application in a batch is approved or not. Results are returned in the order of the loan applications.")
+    public List<Boolean> approveBatch(@P("loan applications") List<LoanApplication> loanApplications) {
+        if (consoleLog) {
+            System.out.println("*** SimpleDroolsTool.approveBatch: loanApplications.size = " + loanApplications.size());
+        }
+
+        // all applications are inserted and fired in one execution
+        newStatelessKieSession().execute(loanApplications);
+
+        List<Boolean> results = new ArrayList<>(loanApplications.size());
+        for (LoanApplication loanApplication : loanApplications) {
+            results.add(loanApplication.isApproved());
+        }
+        return results;
+    }
+
+    // Runs synthetic applications through the same code paths as approve and approveBatch, so the classes generated
+    // for the executable model are loaded and JIT compiled before the first request
+    private void warmUp(int iterations) {
+        long start = System.nanoTime();
+        try {
+            for (int i = 0; i < iterations; i++) {
+                for (LoanApplication loanApplication : warmUpApplications()) {
+                    evaluate(loanApplication);
+                }
+                newStatelessKieSession().execute(warmUpApplications());
+            }
+            if (consoleLog) {
+                System.out.println("*** SimpleDroolsTool.warmUp: " + iterations + " iterations in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+            }
+        } finally {
+            ready.countDown();
+        }
+    }
+
+    // approved, too high amount and not adult
+    private static List<LoanApplication> warmUpApplications() {
+        return List.of(new LoanApplication(new Person("WarmUp", 45), 3000),
+                       new LoanApplication(new Person("WarmUp", 45), 8000),
+                       new LoanApplication(new Person("WarmUp", 15), 3000));
+    }
+
+    // A pooled session is reset and returned to the pool on close()
+    private KieSession newKieSession() {
+        return sessionsPool != null ? sessionsPool.newKieSession() : kieBase.newKieSession();
+    }
+
+    private StatelessKieSession newStatelessKieSession() {
+        return sessionsPool != null ? sessionsPool.newStatelessKieSession() : kieBase.newStatelessKieSession();
+    }
 }
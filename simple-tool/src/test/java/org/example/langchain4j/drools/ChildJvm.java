@@ -0,0 +1,43 @@
+package org.example.langchain4j.drools;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the main() of a benchmark in a new JVM with the test classpath, so each measurement starts cold.
+ * The main() has to print a line "approved=&lt;result&gt; elapsed=&lt;value&gt;".
+ */
+final class ChildJvm {
+
+    private ChildJvm() {
+    }
+
+    // Returns the elapsed value printed by the child JVM, after checking that the loan was approved
+    static long run(Class<?> mainClass, String property, Object value) throws IOException, InterruptedException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java,
+                                             "-cp", System.getProperty("java.class.path"),
+                                             "-D" + property + "=" + value,
+                                             mainClass.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertThat(process.waitFor()).as(output).isZero();
+
+        String result = output.lines().filter(line -> line.startsWith("approved=")).findFirst().orElseThrow();
+        assertThat(result).startsWith("approved=true");
+        return Long.parseLong(result.substring(result.indexOf("elapsed=") + "elapsed=".length()));
+    }
+
+    static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.langchain4j.drools;
+
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Doesn't require LLM.
+ */
+class KieBaseRegistryTest {
+
+    // in src/main/resources/META-INF/kmodule.xml
+    private static final String KIE_BASE_NAME = "loanKieBase";
+
+    @Test
+    void prebuiltKieBaseIsRegistered() {
+        KieBaseRegistry registry = DroolsUtils.getKieBaseRegistry();
+        long misses = registry.getMisses();
+
+        KieBase first = DroolsUtils.loadKieBase(KIE_BASE_NAME, "loan-application.drl");
+        KieBase second = DroolsUtils.loadKieBase(KIE_BASE_NAME, "loan-application.drl");
+
+        assertThat(second).isSameAs(first);
+        assertThat(registry.getMisses()).isLessThanOrEqualTo(misses + 1);
+        assertThat(registry.getEntries())
+                .anySatisfy(entry -> {
+                    assertThat(entry.key()).startsWith(KIE_BASE_NAME + "@");
+                    assertThat(entry.kieBase()).isSameAs(first);
+                });
+        System.out.println(registry.report());
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.kie.api.KieBase;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the cold start of the KieBase prebuilt by kie-maven-plugin and the KieBase compiled at runtime.
+ * Each measurement runs in a new JVM, so it takes more than half a minute. Doesn't require LLM.
+ */
+class StartupBenchmarkTest {
+
+    private static final int RUNS = 3;
+
+    @Test
+    @Tag("soak")
+    void prebuiltKieBaseStartsFasterThanRuntimeCompile() throws Exception {
+        List<Long> prebuilt = new ArrayList<>();
+        List<Long> runtime = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            prebuilt.add(ChildJvm.run(StartupBenchmarkTest.class, DroolsUtils.PREBUILT_KIE_BASE_PROPERTY, true));
+            runtime.add(ChildJvm.run(StartupBenchmarkTest.class, DroolsUtils.PREBUILT_KIE_BASE_PROPERTY, false));
+        }
+
+        long prebuiltMedian = ChildJvm.median(prebuilt);
+        long runtimeMedian = ChildJvm.median(runtime);
+        System.out.println(String.format("time to first evaluation (median of %d JVMs): prebuilt=%d ms  runtime compile=%d ms",
+                                         RUNS, prebuiltMedian, runtimeMedian));
+        assertThat(prebuiltMedian).isLessThan(runtimeMedian);
+    }
+
+    // Runs in the child JVM. Prints the time from main() to the first evaluation result
+    public static void main(String[] args) {
+        long start = System.nanoTime();
+
+        KieBase kieBase = DroolsUtils.loadKieBase("loanKieBase", "loan-application.drl");
+        LoanApplication loanApplication = new LoanApplication(new Person("John", 45), 3000);
+        try (var kieSession = kieBase.newKieSession()) {
+            kieSession.insert(loanApplication);
+            kieSession.fireAllRules();
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("approved=" + loanApplication.isApproved() + " elapsed=" + elapsedMillis);
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.langchain4j.drools;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.example.langchain4j.drools.domain.LoanApplication;
+import org.example.langchain4j.drools.domain.Person;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the latency of the first request with and without warm-up. Each measurement runs in a new JVM,
+ * so it takes about half a minute. Doesn't require LLM.
+ */
+class WarmUpBenchmarkTest {
+
+    private static final int RUNS = 3;
+    private static final int WARM_UP_ITERATIONS = 1000;
+
+    @Test
+    @Tag("soak")
+    void warmedUpFirstRequestIsFasterThanCold() throws Exception {
+        List<Long> cold = new ArrayList<>();
+        List<Long> warm = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            cold.add(ChildJvm.run(WarmUpBenchmarkTest.class, DroolsUtils.WARM_UP_ITERATIONS_PROPERTY, 0));
+            warm.add(ChildJvm.run(WarmUpBenchmarkTest.class, DroolsUtils.WARM_UP_ITERATIONS_PROPERTY, WARM_UP_ITERATIONS));
+        }
+
+        long coldMedian = ChildJvm.median(cold);
+        long warmMedian = ChildJvm.median(warm);
+        System.out.println(String.format("first request latency (median of %d JVMs): no warm-up=%d us  warm-up(%d iterations)=%d us",
+                                         RUNS, coldMedian, WARM_UP_ITERATIONS, warmMedian));
+        assertThat(warmMedian).isLessThan(coldMedian);
+    }
+
+    // Runs in the child JVM. Prints the latency of the first approve() after the tool is ready
+    public static void main(String[] args) throws InterruptedException {
+        SimpleDroolsTool tool = SimpleDroolsTool.getInstance();
+        tool.awaitReady();
+
+        long start = System.nanoTime();
+        boolean approved = tool.approve(new LoanApplication(new Person("John", 45), 3000));
+        long elapsedMicros = (System.nanoTime() - start) / 1_000;
+        System.out.println("approved=" + approved + " elapsed=" + elapsedMicros);
+    }
+}
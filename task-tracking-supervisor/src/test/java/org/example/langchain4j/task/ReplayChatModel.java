@@ -0,0 +1,169 @@
+package org.example.langchain4j.task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessageDeserializer;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+
+/**
+ * Serves the responses recorded by {@link RecordingChatModel} instead of calling a model, so the agent pipelines
+ * run offline and deterministically, e.g. to benchmark the orchestration.
+ * <p>
+ * A request gets the responses recorded for the same request in the recorded order, then the last one again,
+ * so a pipeline can be run more times than it was recorded. A request which wasn't recorded, e.g. because the prompts
+ * changed since the recording, fails with an IllegalStateException. When lenient, it gets the next recorded response
+ * in file order instead.
+ */
+public class ReplayChatModel implements ChatModel {
+
+    private static final String KEY_PREFIX = "{\"key\":\"";
+    private static final String MS_FIELD = ",\"ms\":";
+    private static final String RESPONSE_FIELD = ",\"response\":";
+
+    private final Path file;
+    // null to wait the recorded latency
+    private final Duration latency;
+    private final boolean lenient;
+    private final List<Exchange> exchanges;
+
+    // guarded by this
+    private final Map<String, Deque<Exchange>> remaining = new HashMap<>();
+    private final Map<String, Exchange> last = new HashMap<>();
+    private int nextUnmatched;
+
+    private final AtomicLong replayed = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+
+    /**
+     * Waits as long as the recorded call took before answering.
+     */
+    public ReplayChatModel(Path file) {
+        this(file, null);
+    }
+
+    /**
+     * @param latency waited before answering, Duration.ZERO to measure the orchestration alone
+     */
+    public ReplayChatModel(Path file, Duration latency) {
+        this(file, latency, false);
+    }
+
+    /**
+     * @param lenient true to serve a request which wasn't recorded the next recorded response in file order,
+     *                instead of failing
+     */
+    public ReplayChatModel(Path file, Duration latency, boolean lenient) {
+        this.file = file;
+        this.latency = latency;
+        this.lenient = lenient;
+        this.exchanges = load(file);
+        if (exchanges.isEmpty()) {
+            throw new IllegalArgumentException("No recorded exchange in " + file);
+        }
+        for (Exchange exchange : exchanges) {
+            remaining.computeIfAbsent(exchange.key(), k -> new ArrayDeque<>()).add(exchange);
+        }
+    }
+
+    private static List<Exchange> load(Path file) {
+        List<Exchange> exchanges = new ArrayList<>();
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                int msStart = line.indexOf(MS_FIELD);
+                int responseStart = line.indexOf(RESPONSE_FIELD, msStart);
+                if (!line.startsWith(KEY_PREFIX) || msStart < 0 || responseStart < 0 || !line.endsWith("}")) {
+                    throw new IllegalArgumentException("Not a recorded exchange in " + file + ": " + line);
+                }
+                String key = line.substring(KEY_PREFIX.length(), msStart - 1);
+                long millis = Long.parseLong(line.substring(msStart + MS_FIELD.length(), responseStart));
+                AiMessage aiMessage = (AiMessage) ChatMessageDeserializer.messageFromJson(
+                        line.substring(responseStart + RESPONSE_FIELD.length(), line.length() - 1));
+                exchanges.add(new Exchange(key, millis, aiMessage));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read recording file: " + file, e);
+        }
+        return exchanges;
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest chatRequest) {
+        Exchange exchange = next(RecordingChatModel.key(chatRequest));
+        long millis = latency != null ? latency.toMillis() : exchange.millis();
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        AiMessage aiMessage = exchange.aiMessage();
+        return ChatResponse.builder()
+                .aiMessage(aiMessage)
+                .finishReason(aiMessage.hasToolExecutionRequests() ? FinishReason.TOOL_EXECUTION : FinishReason.STOP)
+                .build();
+    }
+
+    private synchronized Exchange next(String key) {
+        Deque<Exchange> forKey = remaining.get(key);
+        Exchange exchange = forKey != null ? forKey.poll() : null;
+        if (exchange == null) {
+            exchange = last.get(key);
+        }
+        if (exchange != null) {
+            last.put(key, exchange);
+            replayed.incrementAndGet();
+            return exchange;
+        }
+        if (!lenient) {
+            throw new IllegalStateException("The request wasn't recorded in " + file + ". Record it again with -D"
+                                                    + ChatModelRecordings.MODE_PROPERTY + "=record, or replay with -D"
+                                                    + ChatModelRecordings.LENIENT_PROPERTY + "=true to serve it the next recorded response");
+        }
+        int index = nextUnmatched;
+        nextUnmatched = (nextUnmatched + 1) % exchanges.size();
+        unmatched.incrementAndGet();
+        System.out.println("*** ReplayChatModel.chat: the request wasn't recorded in " + file + ", replaying exchange #" + (index + 1));
+        return exchanges.get(index);
+    }
+
+    public int size() {
+        return exchanges.size();
+    }
+
+    public long getReplayed() {
+        return replayed.get();
+    }
+
+    // requests served in file order because they weren't recorded. Always 0 unless lenient
+    public long getUnmatched() {
+        return unmatched.get();
+    }
+
+    public String report() {
+        return String.format("ReplayChatModel{file=%s, exchanges=%d, replayed=%d, unmatched=%d, latency=%s, lenient=%s}",
+                             file, size(), getReplayed(), getUnmatched(), latency != null ? latency.toMillis() + "ms" : "recorded", lenient);
+    }
+
+    private record Exchange(String key, long millis, AiMessage aiMessage) {
+    }
+}
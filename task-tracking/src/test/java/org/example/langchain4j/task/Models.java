@@ -1,18 +1,24 @@
 package org.example.langchain4j.task;
 
+import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.openai.OpenAiChatModel;
 
 import static dev.langchain4j.model.openai.OpenAiChatModelName.GPT_4_O_MINI;
 
 /**
  * Utility class for creating chat models used in tests.
+ * Run with -Dllm.mode=record to record the exchanges, then -Dllm.mode=replay to run without OpenAI (see ChatModelRecordings).
  */
 public class Models {
-    
+
     /**
      * Create a base chat model for general use.
      */
-    public static OpenAiChatModel baseModel() {
+    public static ChatModel baseModel() {
+        return ChatModelRecordings.of("base", Models::openAiModel);
+    }
+
+    private static ChatModel openAiModel() {
         return OpenAiChatModel.builder()
                 .apiKey(System.getenv("OPENAI_API_KEY"))
                 .modelName(GPT_4_O_MINI)